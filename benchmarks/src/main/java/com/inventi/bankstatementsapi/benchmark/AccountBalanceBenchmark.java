@@ -0,0 +1,80 @@
+package com.inventi.bankstatementsapi.benchmark;
+
+import com.inventi.bankstatementsapi.config.BalanceCacheProperties;
+import com.inventi.bankstatementsapi.repository.AccountsBalanceView;
+import com.inventi.bankstatementsapi.repository.BankStatementRepository;
+import com.inventi.bankstatementsapi.service.AccountBalanceCache;
+import com.inventi.bankstatementsapi.service.AccountBalanceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the in-memory part of a batch balance request, grouping the rows of the balance query per account, scaling
+ * amounts to their currency and going through the balance cache. The repository returns pregenerated rows, so the
+ * database round trip is left out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountBalanceBenchmark {
+
+    private static final LocalDate DATE_FROM = LocalDate.of(2022, 1, 1);
+
+    private static final LocalDate DATE_TO = LocalDate.of(2022, 12, 31);
+
+    @Param({"10", "1000"})
+    private int accounts;
+
+    @Param({"1", "3"})
+    private int currencies;
+
+    /**
+     * Whether balances are already cached, otherwise the cache is cleared before every call.
+     */
+    @Param({"false", "true"})
+    private boolean cached;
+
+    private List<String> accountNumbers;
+
+    private AccountBalanceCache accountBalanceCache;
+
+    private AccountBalanceService accountBalanceService;
+
+    @Setup
+    public void setup() {
+        accountNumbers = BankStatementGenerator.accountNumbers(accounts);
+        List<AccountsBalanceView> accountsBalances = BankStatementGenerator.accountsBalances(accountNumbers, currencies);
+        BankStatementRepository bankStatementRepository = (BankStatementRepository) Proxy.newProxyInstance(
+                BankStatementRepository.class.getClassLoader(), new Class<?>[]{BankStatementRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("getAccountsBalances")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return accountsBalances;
+                });
+        accountBalanceCache = new AccountBalanceCache(new BalanceCacheProperties(), new SimpleMeterRegistry());
+        accountBalanceService = new AccountBalanceService(bankStatementRepository, accountBalanceCache);
+        accountBalanceService.getAccountsBalances(accountNumbers, DATE_FROM, DATE_TO);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        if (!cached) {
+            accountBalanceCache.invalidate(accountNumbers);
+        }
+    }
+
+    @Benchmark
+    public Map<String, ?> getAccountsBalances() {
+        return accountBalanceService.getAccountsBalances(accountNumbers, DATE_FROM, DATE_TO);
+    }
+}
@@ -0,0 +1,49 @@
+package com.inventi.bankstatementsapi.benchmark;
+
+import com.opencsv.bean.CsvBindByName;
+import com.opencsv.bean.CsvDate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Export row written by OpenCSV through reflection, the layout the application wrote before its own codec.
+ */
+public class BankStatementExportCsvBean {
+
+    @CsvBindByName(required = true)
+    private Long id;
+
+    @CsvBindByName(required = true)
+    private String accountNumber;
+
+    @CsvBindByName(required = true)
+    @CsvDate("yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime operationDate;
+
+    @CsvBindByName(required = true)
+    private String beneficiary;
+
+    @CsvBindByName
+    private String comment;
+
+    @CsvBindByName(required = true)
+    private BigDecimal amount;
+
+    @CsvBindByName(required = true)
+    private String currency;
+
+    public BankStatementExportCsvBean() {
+    }
+
+    public BankStatementExportCsvBean(Long id, String accountNumber, LocalDateTime operationDate, String beneficiary,
+                                      String comment, BigDecimal amount, String currency) {
+        this.id = id;
+        this.accountNumber = accountNumber;
+        this.operationDate = operationDate;
+        this.beneficiary = beneficiary;
+        this.comment = comment;
+        this.amount = amount;
+        this.currency = currency;
+    }
+}
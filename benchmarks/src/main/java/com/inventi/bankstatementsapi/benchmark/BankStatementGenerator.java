@@ -0,0 +1,119 @@
+package com.inventi.bankstatementsapi.benchmark;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.repository.AccountsBalanceView;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic bank statements shared by the benchmarks, so results of different runs and branches compare
+ * the same data.
+ */
+public final class BankStatementGenerator {
+
+    public static final String[] CURRENCIES = {"EUR", "USD", "GBP"};
+
+    private static final long SEED = 42;
+
+    private static final int ACCOUNTS = 500;
+
+    private static final int BENEFICIARIES = 700;
+
+    private static final LocalDateTime FIRST_OPERATION_DATE = LocalDateTime.of(2022, 1, 1, 8, 30, 15);
+
+    private BankStatementGenerator() {
+    }
+
+    /**
+     * Bank statements a minute apart with a mix of empty, plain and quoted comments and amounts of up to two fraction
+     * digits. Account numbers and currencies are shared instances, as they would be after deduplication by a parser.
+     */
+    public static List<BankStatement> bankStatements(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[] accountNumbers = accountNumbers(ACCOUNTS, 100000);
+        String[] beneficiaries = accountNumbers(BENEFICIARIES, 200000);
+        List<BankStatement> bankStatements = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            bankStatements.add(new BankStatement((long) i, accountNumbers[random.nextInt(ACCOUNTS)],
+                    FIRST_OPERATION_DATE.plusMinutes(i), beneficiaries[random.nextInt(BENEFICIARIES)], comment(i),
+                    BigDecimal.valueOf(random.nextLong(1_000_000), 2), CURRENCIES[random.nextInt(4) == 0 ? 1 : 0]));
+        }
+        return bankStatements;
+    }
+
+    /**
+     * @return bank statements in the import csv format, with a header and without ids
+     */
+    public static byte[] csv(List<BankStatement> bankStatements) {
+        StringBuilder csv = new StringBuilder(bankStatements.size() * 80)
+                .append("accountNumber,operationDate,beneficiary,comment,amount,currency\n");
+        for (BankStatement bankStatement : bankStatements) {
+            String comment = bankStatement.getComment();
+            csv.append(bankStatement.getAccountNumber()).append(',')
+                    .append(bankStatement.getOperationDate()).append(',')
+                    .append(bankStatement.getBeneficiary()).append(',')
+                    .append(comment.contains(",") ? "\"" + comment + "\"" : comment).append(',')
+                    .append(bankStatement.getAmount().toPlainString()).append(',')
+                    .append(bankStatement.getCurrency()).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return balance rows of a batch balance query, one per account and currency in the order the query returns them
+     */
+    public static List<AccountsBalanceView> accountsBalances(List<String> accountNumbers, int currencies) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<AccountsBalanceView> accountsBalances = new ArrayList<>(accountNumbers.size() * currencies);
+        for (String accountNumber : accountNumbers) {
+            for (int currency = 0; currency < currencies; currency++) {
+                accountsBalances.add(new AccountsBalance(accountNumber, CURRENCIES[currency],
+                        BigDecimal.valueOf(random.nextLong(-100_000_000, 100_000_000), 4)));
+            }
+        }
+        return accountsBalances;
+    }
+
+    public static List<String> accountNumbers(int accounts) {
+        return List.of(accountNumbers(accounts, 100000));
+    }
+
+    private static String[] accountNumbers(int accounts, int first) {
+        String[] accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountNumbers[i] = "LT" + (first + i);
+        }
+        return accountNumbers;
+    }
+
+    private static String comment(int row) {
+        return switch (row % 3) {
+            case 0 -> "";
+            case 1 -> "invoice " + row;
+            default -> "invoice, " + row;
+        };
+    }
+
+    private record AccountsBalance(String accountNumber, String currency, BigDecimal amount) implements AccountsBalanceView {
+
+        @Override
+        public String getAccountNumber() {
+            return accountNumber;
+        }
+
+        @Override
+        public String getCurrency() {
+            return currency;
+        }
+
+        @Override
+        public BigDecimal getAmount() {
+            return amount;
+        }
+    }
+}
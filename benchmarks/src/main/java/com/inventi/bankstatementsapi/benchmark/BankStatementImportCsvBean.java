@@ -0,0 +1,56 @@
+package com.inventi.bankstatementsapi.benchmark;
+
+import com.opencsv.bean.CsvBindByName;
+import com.opencsv.bean.CsvDate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Import row bound by OpenCSV through reflection, the layout the application parsed before its own codec.
+ */
+public class BankStatementImportCsvBean {
+
+    @CsvBindByName(required = true)
+    private String accountNumber;
+
+    @CsvBindByName(required = true)
+    @CsvDate("yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime operationDate;
+
+    @CsvBindByName(required = true)
+    private String beneficiary;
+
+    @CsvBindByName
+    private String comment;
+
+    @CsvBindByName(required = true)
+    private BigDecimal amount;
+
+    @CsvBindByName(required = true)
+    private String currency;
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public LocalDateTime getOperationDate() {
+        return operationDate;
+    }
+
+    public String getBeneficiary() {
+        return beneficiary;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+}
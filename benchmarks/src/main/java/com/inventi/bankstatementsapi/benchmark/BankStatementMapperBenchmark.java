@@ -0,0 +1,52 @@
+package com.inventi.bankstatementsapi.benchmark;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.mapper.BankStatementMapper;
+import com.inventi.bankstatementsapi.repository.AccountsBalanceView;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single {@link BankStatementMapper} conversion. Run with {@code -prof gc} to see the bytes allocated per
+ * conversion as {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(BankStatementMapperBenchmark.ROWS)
+public class BankStatementMapperBenchmark {
+
+    static final int ROWS = 1000;
+
+    private final BankStatementMapper bankStatementMapper = new BankStatementMapper();
+
+    private List<BankStatement> bankStatements;
+
+    private List<AccountsBalanceView> accountsBalances;
+
+    @Setup
+    public void setup() {
+        bankStatements = BankStatementGenerator.bankStatements(ROWS);
+        accountsBalances = BankStatementGenerator.accountsBalances(BankStatementGenerator.accountNumbers(ROWS / 2), 2);
+    }
+
+    @Benchmark
+    public void toDto(Blackhole blackhole) {
+        for (BankStatement bankStatement : bankStatements) {
+            blackhole.consume(bankStatementMapper.toDto(bankStatement));
+        }
+    }
+
+    @Benchmark
+    public void toAccountBalanceDto(Blackhole blackhole) {
+        for (AccountsBalanceView accountsBalance : accountsBalances) {
+            blackhole.consume(bankStatementMapper.toDto(accountsBalance));
+        }
+    }
+}
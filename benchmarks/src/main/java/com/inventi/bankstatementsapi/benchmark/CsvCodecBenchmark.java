@@ -0,0 +1,84 @@
+package com.inventi.bankstatementsapi.benchmark;
+
+import com.inventi.bankstatementsapi.csv.Compression;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.service.CsvService;
+import com.opencsv.exceptions.CsvException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Compares the OpenCSV bean path with the hand-written bank statement codec and measures compressed export. The million
+ * row files need a larger heap than the default one of small machines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CsvCodecBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Param({"10000", "1000000"})
+    private int rows;
+
+    private final CsvService csvService = new CsvService();
+
+    private MockMultipartFile file;
+
+    private List<BankStatement> bankStatements;
+
+    @Setup
+    public void setup() {
+        bankStatements = BankStatementGenerator.bankStatements(rows);
+        file = new MockMultipartFile("file", "bank-statements.csv", "text/csv", BankStatementGenerator.csv(bankStatements));
+    }
+
+    @Benchmark
+    public void parseWithOpenCsv(Blackhole blackhole) throws IOException {
+        OpenCsvBaseline.readBankStatements(file.getInputStream(), CHUNK_SIZE, chunk -> chunk.forEach(blackhole::consume));
+    }
+
+    @Benchmark
+    public void parseWithCodec(Blackhole blackhole) throws IOException {
+        SequentialCsvReader.readBankStatements(file.getInputStream(), CHUNK_SIZE, chunk -> chunk.forEach(blackhole::consume));
+    }
+
+    @Benchmark
+    public void writeWithOpenCsv() throws CsvException {
+        OpenCsvBaseline.writeBankStatements(bankStatements, Writer.nullWriter());
+    }
+
+    @Benchmark
+    public void writeWithCodec() {
+        csvService.writeBankStatementsToCsv(bankStatements.stream(), OutputStream.nullOutputStream(), BUFFER_SIZE);
+    }
+
+    @Benchmark
+    public void writeGzipWithCodec() throws IOException {
+        writeCompressed(Compression.GZIP, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Benchmark
+    public void writeZstdWithCodec() throws IOException {
+        writeCompressed(Compression.ZSTD, 3);
+    }
+
+    private void writeCompressed(Compression compression, int level) throws IOException {
+        try (OutputStream outputStream = compression.compress(OutputStream.nullOutputStream(), level, BUFFER_SIZE)) {
+            csvService.writeBankStatementsToCsv(bankStatements.stream(), outputStream, BUFFER_SIZE);
+        }
+    }
+}
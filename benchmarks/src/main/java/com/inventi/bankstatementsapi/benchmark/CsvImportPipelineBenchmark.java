@@ -0,0 +1,76 @@
+package com.inventi.bankstatementsapi.benchmark;
+
+import com.inventi.bankstatementsapi.config.ImportProperties;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.service.CsvImportPipeline;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how parsing and validating an import scales with the parser threads of {@link CsvImportPipeline}, for an
+ * upload streamed from memory and for the same file memory-mapped from disk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvImportPipelineBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param({"200000"})
+    private int rows;
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int parserThreads;
+
+    private CsvImportPipeline csvImportPipeline;
+
+    private MockMultipartFile file;
+
+    private Path spoolFile;
+
+    @Setup
+    public void setup() throws IOException {
+        ImportProperties importProperties = new ImportProperties();
+        importProperties.setParserThreads(parserThreads);
+        csvImportPipeline = new CsvImportPipeline(importProperties);
+        file = new MockMultipartFile("file", "bank-statements.csv", "text/csv",
+                BankStatementGenerator.csv(BankStatementGenerator.bankStatements(rows)));
+        spoolFile = Files.createTempFile("bank-statements-", ".csv");
+        Files.write(spoolFile, file.getBytes());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        csvImportPipeline.shutdown();
+        Files.deleteIfExists(spoolFile);
+    }
+
+    @Benchmark
+    public void parseSequentially(Blackhole blackhole) throws IOException {
+        SequentialCsvReader.readBankStatements(file.getInputStream(), CHUNK_SIZE,
+                chunk -> blackhole.consume(chunk.stream().filter(BankStatement::isValid).toList()));
+    }
+
+    @Benchmark
+    public void parseWithPipeline(Blackhole blackhole) {
+        csvImportPipeline.importBankStatements(file, CHUNK_SIZE,
+                (chunk, rowNumbers) -> chunk.stream().filter(BankStatement::isValid).toList(), blackhole::consume);
+    }
+
+    @Benchmark
+    public void parseMappedFileWithPipeline(Blackhole blackhole) {
+        csvImportPipeline.importBankStatements(new FileSystemResource(spoolFile), CHUNK_SIZE,
+                (chunk, rowNumbers) -> chunk.stream().filter(BankStatement::isValid).toList(), blackhole::consume);
+    }
+}
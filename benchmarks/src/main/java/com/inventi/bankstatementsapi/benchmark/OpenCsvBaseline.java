@@ -0,0 +1,88 @@
+package com.inventi.bankstatementsapi.benchmark;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.opencsv.CSVReader;
+import com.opencsv.bean.CsvToBeanBuilder;
+import com.opencsv.bean.StatefulBeanToCsv;
+import com.opencsv.bean.StatefulBeanToCsvBuilder;
+import com.opencsv.exceptions.CsvException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static com.inventi.bankstatementsapi.utils.MoneyUtils.toCurrencyScale;
+
+/**
+ * The OpenCSV bean binding the application used before its hand-written codec, kept only to compare the two.
+ */
+public final class OpenCsvBaseline {
+
+    private OpenCsvBaseline() {
+    }
+
+    /**
+     * Binds rows to beans, converts them to bank statements and hands them to the consumer in chunks of at most
+     * {@code chunkSize} rows.
+     *
+     * @return amount of rows skipped because they could not be bound to a bean
+     */
+    public static long readBankStatements(InputStream inputStream, int chunkSize, Consumer<List<BankStatement>> chunkConsumer)
+            throws IOException {
+        try (CSVReader reader = new CSVReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            LongAdder skippedRows = new LongAdder();
+            Iterator<BankStatementImportCsvBean> beans = new CsvToBeanBuilder<BankStatementImportCsvBean>(reader)
+                    .withType(BankStatementImportCsvBean.class)
+                    .withExceptionHandler(e -> {
+                        skippedRows.increment();
+                        return null;
+                    })
+                    .withIgnoreEmptyLine(true)
+                    .build()
+                    .iterator();
+            List<BankStatement> chunk = new ArrayList<>(chunkSize);
+            while (beans.hasNext()) {
+                chunk.add(toEntity(beans.next()));
+                if (chunk.size() == chunkSize) {
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+            }
+            return skippedRows.sum();
+        }
+    }
+
+    public static void writeBankStatements(List<BankStatement> bankStatements, Writer writer) throws CsvException {
+        StatefulBeanToCsv<BankStatementExportCsvBean> beanToCsv = new StatefulBeanToCsvBuilder<BankStatementExportCsvBean>(writer)
+                .withExceptionHandler(e -> null)
+                .build();
+        beanToCsv.write(bankStatements.stream().map(OpenCsvBaseline::toExportCsvBean).toList());
+    }
+
+    private static BankStatement toEntity(BankStatementImportCsvBean bean) {
+        return BankStatement.builder()
+                .accountNumber(bean.getAccountNumber())
+                .operationDate(bean.getOperationDate())
+                .beneficiary(bean.getBeneficiary())
+                .comment(bean.getComment())
+                .amount(bean.getAmount())
+                .currency(bean.getCurrency())
+                .build();
+    }
+
+    private static BankStatementExportCsvBean toExportCsvBean(BankStatement bankStatement) {
+        return new BankStatementExportCsvBean(bankStatement.getId(), bankStatement.getAccountNumber(),
+                bankStatement.getOperationDate(), bankStatement.getBeneficiary(), bankStatement.getComment(),
+                toCurrencyScale(bankStatement.getAmount(), bankStatement.getCurrency()), bankStatement.getCurrency());
+    }
+}
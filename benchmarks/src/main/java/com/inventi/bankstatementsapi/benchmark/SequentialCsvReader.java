@@ -0,0 +1,43 @@
+package com.inventi.bankstatementsapi.benchmark;
+
+import com.inventi.bankstatementsapi.csv.BankStatementCsvReader;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parses a whole upload with a single {@link BankStatementCsvReader} on the calling thread, the baseline of the
+ * parallel import pipeline.
+ */
+public final class SequentialCsvReader {
+
+    private SequentialCsvReader() {
+    }
+
+    /**
+     * @return amount of rows skipped because they could not be converted to a bank statement
+     */
+    public static long readBankStatements(InputStream inputStream, int chunkSize, Consumer<List<BankStatement>> chunkConsumer)
+            throws IOException {
+        try (BankStatementCsvReader reader = new BankStatementCsvReader(inputStream)) {
+            reader.readHeader();
+            List<BankStatement> chunk = new ArrayList<>(chunkSize);
+            BankStatement bankStatement;
+            while ((bankStatement = reader.next()) != null) {
+                chunk.add(bankStatement);
+                if (chunk.size() == chunkSize) {
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+            }
+            return reader.getSkippedCount();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.inventi.bankstatementsapi.loadtest;
+
+import com.inventi.bankstatementsapi.benchmark.BankStatementGenerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures balance request latency while slow clients download exports, against a running application. Each export
+ * client reads its download at a fixed, low rate so the server keeps a request thread and a database connection busy
+ * for the whole test, like a download over a slow link.
+ * <p>
+ * Arguments, all optional: base url ({@code http://localhost:8080/api}), slow export clients (300), balance clients
+ * (20), measured seconds (30) and the number of {@link BankStatementGenerator} accounts queried at random (500), the
+ * accounts of a file written by {@link ImportFileGenerator}.
+ */
+public class ExportContentionLoadTest {
+
+    private static final int EXPORT_READ_BYTES = 8 * 1024;
+
+    private static final long EXPORT_READ_INTERVAL_MILLIS = 50;
+
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+
+    private final URI baseUri;
+
+    private final int exportClients;
+
+    private final int balanceClients;
+
+    private final Duration duration;
+
+    private final List<String> accountNumbers;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final Map<String, AtomicLong> exportStatuses = new ConcurrentHashMap<>();
+
+    private final AtomicLong balanceErrors = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    private ExportContentionLoadTest(URI baseUri, int exportClients, int balanceClients, Duration duration,
+                                     int accounts) {
+        this.baseUri = baseUri;
+        this.exportClients = exportClients;
+        this.balanceClients = balanceClients;
+        this.duration = duration;
+        this.accountNumbers = BankStatementGenerator.accountNumbers(accounts);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        new ExportContentionLoadTest(
+                URI.create(args.length > 0 ? args[0] : "http://localhost:8080/api"),
+                args.length > 1 ? Integer.parseInt(args[1]) : 300,
+                args.length > 2 ? Integer.parseInt(args[2]) : 20,
+                Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 30),
+                args.length > 4 ? Integer.parseInt(args[4]) : 500
+        ).run();
+    }
+
+    private void run() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < exportClients; i++) {
+            threads.add(start("slow-export-" + i, this::downloadExportSlowly));
+        }
+        Thread.sleep(WARM_UP.toMillis());
+
+        List<long[]> latencies = new ArrayList<>();
+        long deadline = System.nanoTime() + duration.toNanos();
+        for (int i = 0; i < balanceClients; i++) {
+            long[] clientLatencies = new long[1 << 20];
+            latencies.add(clientLatencies);
+            threads.add(start("balance-" + i, () -> requestBalances(clientLatencies, deadline)));
+        }
+        Thread.sleep(duration.toMillis());
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        report(latencies);
+    }
+
+    private Thread start(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Uses a raw socket with a small receive buffer, so the download is throttled by the client reads rather than
+     * buffered by the http client. Statuses received after the measurement ended are marked, they come from queued
+     * exports admitted while the other clients disconnect.
+     */
+    private void downloadExportSlowly() {
+        String status = "failed";
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(EXPORT_READ_BYTES);
+            socket.connect(new InetSocketAddress(baseUri.getHost(), baseUri.getPort()));
+            OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(("GET " + baseUri.getPath() + "/bank-statements/export HTTP/1.1\r\n" +
+                    "Host: " + baseUri.getHost() + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            outputStream.flush();
+            InputStream inputStream = socket.getInputStream();
+            byte[] buffer = new byte[EXPORT_READ_BYTES];
+            int read = inputStream.read(buffer);
+            if (read > 0) {
+                status = new String(buffer, 0, Math.min(read, 12), StandardCharsets.US_ASCII).substring(9);
+            }
+            if (!running) {
+                status += " (after end)";
+            }
+            while (running && read >= 0) {
+                Thread.sleep(EXPORT_READ_INTERVAL_MILLIS);
+                read = inputStream.read(buffer);
+            }
+            if (read < 0 && running) {
+                status += " (finished)";
+            }
+        } catch (IOException e) {
+            status = e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exportStatuses.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Queries random accounts and start days so most requests miss the balance cache and need a connection.
+     */
+    private void requestBalances(long[] latencies, long deadline) {
+        int count = 0;
+        while (System.nanoTime() < deadline && count < latencies.length) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            URI uri = URI.create(baseUri + "/bank-statements/balance?accountNumber="
+                    + accountNumbers.get(random.nextInt(accountNumbers.size()))
+                    + "&from=2022-" + String.format("%02d-%02d", random.nextInt(1, 13), random.nextInt(1, 29)));
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).build();
+            long startTime = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    balanceErrors.incrementAndGet();
+                }
+            } catch (IOException e) {
+                balanceErrors.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            latencies[count++] = System.nanoTime() - startTime;
+        }
+        if (count < latencies.length) {
+            latencies[count] = -1;
+        }
+    }
+
+    private void report(List<long[]> clientLatencies) {
+        long[] latencies = clientLatencies.stream()
+                .flatMapToLong(values -> Arrays.stream(values).takeWhile(latency -> latency > 0))
+                .sorted()
+                .toArray();
+        System.out.printf("slow exports: %s%n", exportStatuses);
+        System.out.printf("balance requests: %d in %d s (%.0f/s), errors: %d%n", latencies.length,
+                duration.toSeconds(), latencies.length / (double) duration.toSeconds(), balanceErrors.get());
+        if (latencies.length == 0) {
+            return;
+        }
+        System.out.printf("balance latency ms: p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n",
+                percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,24 @@
+package com.inventi.bankstatementsapi.loadtest;
+
+import com.inventi.bankstatementsapi.benchmark.BankStatementGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes an import csv of {@link BankStatementGenerator} rows, for measuring imports against a running application and
+ * for seeding the rows the load tests query.
+ * <p>
+ * Arguments, all optional: output file ({@code bank-statements.csv}) and rows (1000000).
+ */
+public class ImportFileGenerator {
+
+    public static void main(String[] args) throws IOException {
+        Path file = Path.of(args.length > 0 ? args[0] : "bank-statements.csv");
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        byte[] csv = BankStatementGenerator.csv(BankStatementGenerator.bankStatements(rows));
+        Files.write(file, csv);
+        System.out.printf("wrote %d rows (%d bytes) to %s%n", rows, csv.length, file);
+    }
+}
@@ -2,8 +2,12 @@ package com.inventi.bankstatementsapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// the reactive export builds its own connection pool, an R2DBC connection factory bean would disable the DataSource
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableScheduling
 public class BankStatementsApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,198 @@
+package com.inventi.bankstatementsapi.arrow;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes bank statements as an Arrow IPC stream of record batches holding {@code batchSize} rows each.
+ * <p>
+ * Account number, beneficiary and currency are dictionary encoded with a dictionary per batch, which the stream
+ * format allows to replace between batches, so memory stays bounded however many distinct accounts are exported.
+ * Ids, operation dates and amounts are primitive 64 bit, microsecond timestamp and {@code decimal(18, 4)} columns.
+ * {@link #finish()} must be called after the last row.
+ */
+public class BankStatementArrowWriter implements Closeable {
+
+    public static final int AMOUNT_PRECISION = 18;
+
+    public static final int AMOUNT_SCALE = 4;
+
+    private static final ArrowType.Int DICTIONARY_INDEX_TYPE = new ArrowType.Int(32, true);
+
+    private final BufferAllocator allocator = new RootAllocator();
+
+    private final int batchSize;
+
+    private final BigIntVector id;
+
+    private final DictionaryColumn accountNumber;
+
+    private final TimeStampMicroVector operationDate;
+
+    private final DictionaryColumn beneficiary;
+
+    private final VarCharVector comment;
+
+    private final DecimalVector amount;
+
+    private final DictionaryColumn currency;
+
+    private final VectorSchemaRoot root;
+
+    private final ArrowStreamWriter writer;
+
+    private boolean started;
+
+    private int rowCount;
+
+    public BankStatementArrowWriter(OutputStream outputStream, int batchSize) {
+        this.batchSize = batchSize;
+        DictionaryProvider.MapDictionaryProvider dictionaryProvider = new DictionaryProvider.MapDictionaryProvider();
+        id = new BigIntVector(Field.notNullable("id", new ArrowType.Int(64, true)), allocator);
+        accountNumber = new DictionaryColumn("accountNumber", 0, dictionaryProvider);
+        operationDate = new TimeStampMicroVector(
+                Field.notNullable("operationDate", new ArrowType.Timestamp(TimeUnit.MICROSECOND, null)), allocator);
+        beneficiary = new DictionaryColumn("beneficiary", 1, dictionaryProvider);
+        comment = new VarCharVector(Field.nullable("comment", ArrowType.Utf8.INSTANCE), allocator);
+        amount = new DecimalVector(Field.notNullable("amount",
+                new ArrowType.Decimal(AMOUNT_PRECISION, AMOUNT_SCALE, 128)), allocator);
+        currency = new DictionaryColumn("currency", 2, dictionaryProvider);
+        root = new VectorSchemaRoot(List.<FieldVector>of(id, accountNumber.indexes, operationDate,
+                beneficiary.indexes, comment, amount, currency.indexes));
+        writer = new ArrowStreamWriter(root, dictionaryProvider, outputStream);
+    }
+
+    public void write(BankStatement bankStatement) throws IOException {
+        start();
+        id.setSafe(rowCount, bankStatement.getId());
+        accountNumber.set(rowCount, bankStatement.getAccountNumber());
+        operationDate.setSafe(rowCount, toEpochMicros(bankStatement.getOperationDate()));
+        beneficiary.set(rowCount, bankStatement.getBeneficiary());
+        if (bankStatement.getComment() == null) {
+            comment.setNull(rowCount);
+        } else {
+            comment.setSafe(rowCount, bankStatement.getComment().getBytes(StandardCharsets.UTF_8));
+        }
+        amount.setSafe(rowCount, bankStatement.getAmount().setScale(AMOUNT_SCALE, RoundingMode.UNNECESSARY));
+        currency.set(rowCount, bankStatement.getCurrency());
+        if (++rowCount == batchSize) {
+            writeBatch();
+        }
+    }
+
+    /**
+     * Writes the buffered rows and the end of stream marker, an export without rows still carries the schema.
+     */
+    public void finish() throws IOException {
+        start();
+        if (rowCount > 0) {
+            writeBatch();
+        }
+        writer.end();
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+        root.close();
+        accountNumber.close();
+        beneficiary.close();
+        currency.close();
+        allocator.close();
+    }
+
+    private void start() throws IOException {
+        if (!started) {
+            writer.start();
+            started = true;
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        root.setRowCount(rowCount);
+        accountNumber.seal();
+        beneficiary.seal();
+        currency.seal();
+        writer.writeBatch();
+        // the writer keeps copies of the dictionaries it has written, so every vector can be refilled from scratch
+        root.getFieldVectors().forEach(FieldVector::reset);
+        accountNumber.clear();
+        beneficiary.clear();
+        currency.clear();
+        rowCount = 0;
+    }
+
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    /**
+     * Index column of a dictionary encoded string together with the dictionary of the current batch.
+     */
+    private class DictionaryColumn {
+
+        private final IntVector indexes;
+
+        private final VarCharVector values;
+
+        private final Map<String, Integer> valueIndexes = new HashMap<>();
+
+        private DictionaryColumn(String name, long dictionaryId, DictionaryProvider.MapDictionaryProvider dictionaryProvider) {
+            DictionaryEncoding encoding = new DictionaryEncoding(dictionaryId, false, DICTIONARY_INDEX_TYPE);
+            indexes = new IntVector(new Field(name, new FieldType(false, DICTIONARY_INDEX_TYPE, encoding), null),
+                    allocator);
+            values = new VarCharVector(Field.notNullable(name, ArrowType.Utf8.INSTANCE), allocator);
+            dictionaryProvider.put(new Dictionary(values, encoding));
+        }
+
+        private void set(int row, String value) {
+            Integer index = valueIndexes.get(value);
+            if (index == null) {
+                index = valueIndexes.size();
+                values.setSafe(index, value.getBytes(StandardCharsets.UTF_8));
+                valueIndexes.put(value, index);
+            }
+            indexes.setSafe(row, index);
+        }
+
+        private void seal() {
+            values.setValueCount(valueIndexes.size());
+        }
+
+        private void clear() {
+            values.reset();
+            valueIndexes.clear();
+        }
+
+        private void close() {
+            values.close();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.inventi.bankstatementsapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "bank-statements.balance-cache")
+@Getter
+@Setter
+public class BalanceCacheProperties {
+
+    /**
+     * Amount of account balance results kept before the least recently used ones are evicted.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Cached balances expire this long after being computed even without an import touching the account.
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+}
@@ -0,0 +1,81 @@
+package com.inventi.bankstatementsapi.config;
+
+import com.inventi.bankstatementsapi.csv.Compression;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.zip.Deflater;
+
+@Configuration
+@ConfigurationProperties(prefix = "bank-statements.export")
+@Getter
+@Setter
+public class ExportProperties {
+
+    /**
+     * Encoded rows collected before they are handed to the response stream or its compressor.
+     */
+    private DataSize bufferSize = DataSize.ofKilobytes(64);
+
+    /**
+     * Rows per record batch of Arrow exports, each batch carries its own account, beneficiary and currency dictionaries.
+     */
+    private int arrowBatchSize = 64 * 1024;
+
+    /**
+     * Gzip compression level from 1 (fastest) to 9 (smallest).
+     */
+    private int gzipLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * Zstandard compression level from 1 (fastest) to 22 (smallest).
+     */
+    private int zstdLevel = 3;
+
+    /**
+     * Exports streamed at the same time. Each holds a database connection until its download ends, so this must stay
+     * below the connection pool size to leave connections for balance and listing requests.
+     */
+    private int maxConcurrentExports = 4;
+
+    /**
+     * Exports waiting for a free slot before further exports are rejected. Defaults to 100 on virtual threads, and
+     * otherwise to a quarter of {@code server.tomcat.threads.max} less the concurrent exports, since a waiting export
+     * parks a Tomcat worker thread.
+     */
+    private Integer maxQueuedExports;
+
+    /**
+     * How long an export waits for a free slot before it is rejected.
+     */
+    private Duration queueTimeout = Duration.ofSeconds(30);
+
+    /**
+     * R2DBC connections of the reactive export, separate from the JDBC pool. Further reactive exports wait for a
+     * connection without holding a thread.
+     */
+    private int reactivePoolSize = 8;
+
+    /**
+     * How long a reactive export waits for an R2DBC connection before it is rejected.
+     */
+    private Duration reactiveAcquireTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Rows fetched from the cursor of a reactive export per client demand, also the rows of each encoded buffer.
+     */
+    private int reactiveFetchSize = 1000;
+
+    public int getLevel(Compression compression) {
+        return switch (compression) {
+            case GZIP -> gzipLevel;
+            case ZSTD -> zstdLevel;
+            case NONE -> 0;
+        };
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.inventi.bankstatementsapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "bank-statements.import")
+@Getter
+@Setter
+public class ImportProperties {
+
+    /**
+     * Amount of parsed rows handed to persistence at once.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Uploads whose csv is larger than this once decompressed are loaded with PostgreSQL COPY instead of JPA inserts.
+     */
+    private DataSize copyThreshold = DataSize.ofMegabytes(50);
+
+    /**
+     * Threads parsing and validating import chunks concurrently.
+     */
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Chunks parsed ahead of the thread persisting them, defaults to two per parser thread.
+     */
+    private Integer chunksInFlight;
+
+    /**
+     * Asynchronous import jobs processed at the same time, further jobs wait in the queue.
+     */
+    private int maxConcurrentJobs = 2;
+
+    /**
+     * Asynchronous import jobs waiting for a free slot before new uploads are rejected.
+     */
+    private int maxQueuedJobs = 10;
+
+    /**
+     * Directory uploads are stored in until they are imported: asynchronous uploads as they were sent, compressed
+     * uploads decompressed, and uncompressed uploads when {@link #memoryMapped} is on.
+     */
+    private Path spoolDirectory = Path.of(System.getProperty("java.io.tmpdir"));
+
+    /**
+     * Parses uploads from a memory-mapped file in the spool directory instead of streaming them. Worth turning off when
+     * the spool directory is on a network file system.
+     */
+    private boolean memoryMapped = true;
+
+    /**
+     * How long finished import jobs stay available for polling.
+     */
+    private Duration jobRetention = Duration.ofHours(1);
+
+    /**
+     * Rejected rows logged per second across all imports, further rows are only counted. Zero disables the log.
+     */
+    private int rejectedRowLogRate = 10;
+
+    public int getChunksInFlight() {
+        return chunksInFlight == null ? parserThreads * 2 : chunksInFlight;
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.inventi.bankstatementsapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Period;
+
+@Configuration
+@ConfigurationProperties(prefix = "bank-statements.partitions")
+@Getter
+@Setter
+public class PartitionProperties {
+
+    /**
+     * Monthly partitions kept created ahead of the current month.
+     */
+    private int monthsAhead = 3;
+
+    /**
+     * Partitions of months ending longer ago than this are detached into standalone tables, kept attached when unset.
+     */
+    private Period retention;
+
+}
@@ -0,0 +1,26 @@
+package com.inventi.bankstatementsapi.config;
+
+import com.inventi.bankstatementsapi.controller.ReactiveExportHandler;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+
+@Configuration
+public class ReactiveExportConfiguration {
+
+    /**
+     * Runs the reactive export handler on an asynchronous servlet beside the MVC dispatcher, which would collect a
+     * non-streaming {@code Flux} into a list before writing it.
+     */
+    @Bean
+    public ServletRegistrationBean<ServletHttpHandlerAdapter> reactiveExportServlet(ReactiveExportHandler reactiveExportHandler) {
+        ServletRegistrationBean<ServletHttpHandlerAdapter> registration =
+                new ServletRegistrationBean<>(new ServletHttpHandlerAdapter(reactiveExportHandler),
+                        ReactiveExportHandler.SERVLET_MAPPING);
+        registration.setName("reactiveExport");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+}
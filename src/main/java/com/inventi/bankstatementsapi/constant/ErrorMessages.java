@@ -2,10 +2,18 @@ package com.inventi.bankstatementsapi.constant;
 
 public class ErrorMessages {
     public static final String METHOD_ARGUMENT_TYPE_MISMATCH_ERROR = "Parameter is of wrong type";
+    public static final String METHOD_ARGUMENT_NOT_VALID_ERROR = "Request body is invalid";
     public static final String CSV_EXPORT_FAILED = "Csv export failed";
     public static final String FILE_CANNOT_BE_NULL = "File cannot be null";
-    public static final String TYPE_CANNOT_BE_NULL = "Type cannot be null";
     public static final String IMPORT_CSV_FAILED_FILE_IS_NOT_CSV_TYPE = "Failed to import csv because file is not of csv type";
     public static final String IMPORT_CSV_FAILED_HEADER_IS_MISSING = "Failed to import csv because header is missing";
     public static final String IMPORT_CSV_FAILED_HEADER_IS_INVALID = "Failed to import csv because header is invalid";
+    public static final String IMPORT_CSV_FAILED_RECORD_IS_TOO_LONG = "Failed to import csv because a record is too long, a quoted value may not be closed";
+    public static final String IMPORT_CSV_FAILED_FILE_COULD_NOT_BE_SPOOLED = "Failed to import csv because file could not be stored for processing";
+    public static final String IMPORT_CSV_FAILED_FILE_COULD_NOT_BE_DECOMPRESSED = "Failed to import csv because file could not be decompressed";
+    public static final String PAGE_TOKEN_IS_INVALID = "Page token is invalid";
+    public static final String IMPORT_JOB_NOT_FOUND = "Import job not found";
+    public static final String REJECTED_ROWS_NOT_AVAILABLE = "Rejected rows are available only for finished import jobs submitted with rejects=true";
+    public static final String IMPORT_JOB_REJECTED_TOO_MANY_JOBS = "Import job rejected because too many imports are in progress, retry later";
+    public static final String EXPORT_REJECTED_TOO_MANY_EXPORTS = "Export rejected because too many exports are in progress, retry later";
 }
@@ -1,20 +1,42 @@
 package com.inventi.bankstatementsapi.controller;
 
+import com.inventi.bankstatementsapi.csv.Compression;
 import com.inventi.bankstatementsapi.dto.AccountBalanceDto;
-import com.inventi.bankstatementsapi.dto.BankStatementDto;
+import com.inventi.bankstatementsapi.dto.AccountBalancesRequestDto;
+import com.inventi.bankstatementsapi.dto.BankStatementPageDto;
+import com.inventi.bankstatementsapi.dto.ExportFormat;
+import com.inventi.bankstatementsapi.dto.ImportJobDto;
+import com.inventi.bankstatementsapi.dto.ImportResultMode;
+import com.inventi.bankstatementsapi.dto.ImportSummaryDto;
 import com.inventi.bankstatementsapi.exception.CsvExportFailedException;
+import com.inventi.bankstatementsapi.repository.BankStatementFilter;
+import com.inventi.bankstatementsapi.service.AccountBalanceService;
 import com.inventi.bankstatementsapi.service.BankStatementService;
+import com.inventi.bankstatementsapi.service.BankStatementService.ImportResult;
+import com.inventi.bankstatementsapi.service.ExportLimiter;
+import com.inventi.bankstatementsapi.service.ImportJobService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import javax.servlet.http.HttpServletResponse;
-import javax.validation.constraints.NotEmpty;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+
+import static com.inventi.bankstatementsapi.utils.DateUtils.getFromDateTime;
+import static com.inventi.bankstatementsapi.utils.DateUtils.getToDateTime;
 
 @RequiredArgsConstructor
 @RestController
@@ -23,22 +45,92 @@ public class BankStatementController {
 
     private final BankStatementService bankStatementService;
 
-    @PostMapping("/import")
-    public ResponseEntity<List<BankStatementDto>> importBankStatementsToCsv(@RequestParam("file") MultipartFile file) {
-        List<BankStatementDto> bankStatementDtos = bankStatementService.importFromCsv(file);
-        return ResponseEntity.ok(bankStatementDtos);
+    private final AccountBalanceService accountBalanceService;
+
+    private final ImportJobService importJobService;
+
+    private final ExportLimiter exportLimiter;
+
+    @PostMapping(value = "/import", produces = {MediaType.APPLICATION_JSON_VALUE, ImportSummaryDto.MEDIA_TYPE})
+    public ResponseEntity<?> importBankStatementsToCsv(@RequestParam("file") MultipartFile file,
+                                                       @RequestParam(defaultValue = "ROWS") ImportResultMode result,
+                                                       @RequestParam(defaultValue = "false") boolean async,
+                                                       @RequestParam(defaultValue = "NONE") Compression compression,
+                                                       @RequestParam(defaultValue = "false") boolean rejects,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (async) {
+            ImportJobDto importJob = importJobService.submit(file, compression, rejects);
+            return ResponseEntity.accepted()
+                    .location(getImportJobLocation(importJob))
+                    .body(importJob);
+        }
+        boolean importSummaryAccepted = isImportSummaryAccepted(accept);
+        ImportResult importResult = bankStatementService.importFromCsv(file, compression,
+                importSummaryAccepted ? ImportResultMode.SUMMARY : result);
+        if (importResult.summary() == null) {
+            return ResponseEntity.ok(importResult.bankStatements());
+        }
+        ImportSummaryDto importSummary = withStoredRowsLink(importResult.summary());
+        if (importSummaryAccepted) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(ImportSummaryDto.MEDIA_TYPE))
+                    .body(importSummary);
+        }
+        return ResponseEntity.ok(importSummary);
+    }
+
+    /**
+     * {@code from} and {@code to} take an ISO date, as the export does, or an ISO date-time for an exact range.
+     */
+    @GetMapping
+    public ResponseEntity<BankStatementPageDto> getBankStatements(@RequestParam(required = false) String accountNumber,
+                                                                  @RequestParam(required = false) String beneficiary,
+                                                                  @RequestParam(required = false) String from,
+                                                                  @RequestParam(required = false) String to,
+                                                                  @RequestParam(required = false) String currency,
+                                                                  @RequestParam(required = false) String pageToken,
+                                                                  @RequestParam(defaultValue = "100") int pageSize) {
+        BankStatementFilter filter = BankStatementFilter.builder()
+                .accountNumber(accountNumber)
+                .beneficiary(beneficiary)
+                .from(getFromDateTime(from))
+                .to(getToDateTime(to))
+                .currency(currency)
+                .build();
+        return ResponseEntity.ok(bankStatementService.getBankStatements(filter, pageToken, pageSize));
     }
 
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJobDto> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(importJobService.getJob(jobId));
+    }
+
+    /**
+     * Row numbers and reasons of the rows rejected by an import job submitted with {@code rejects=true}.
+     */
+    @GetMapping(value = "/import/{jobId}/rejects", produces = "text/csv")
+    public ResponseEntity<Resource> getImportJobRejects(@PathVariable String jobId) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rejects-" + jobId + ".csv\"")
+                .body(importJobService.getRejectedRows(jobId));
+    }
+
+    /**
+     * An explicit {@code compression} downloads a compressed file, otherwise the response is compressed with the
+     * preferred encoding of {@code Accept-Encoding} and decoded by the client transparently.
+     */
     @GetMapping("/export")
-    public void exportBankStatementsToCsv(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
-                                          HttpServletResponse httpServletResponse) {
-        httpServletResponse.setContentType("text/csv");
-        httpServletResponse.addHeader("Content-Disposition", "attachment; filename=\"bank-statements.csv\"");
+    public void exportBankStatements(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                     @RequestParam(defaultValue = "CSV") ExportFormat format,
+                                     @RequestParam(required = false) Compression compression,
+                                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                     HttpServletResponse httpServletResponse) {
+        exportLimiter.acquire();
         try {
-            bankStatementService.exportToCsv(from, to, httpServletResponse.getWriter());
-        } catch (IOException e) {
-            throw new CsvExportFailedException(e);
+            writeExport(from, to, format, compression, acceptEncoding, httpServletResponse);
+        } finally {
+            exportLimiter.release();
         }
     }
 
@@ -46,7 +138,78 @@ public class BankStatementController {
     public ResponseEntity<List<AccountBalanceDto>> getAccountBalances(@RequestParam @NotEmpty String accountNumber,
                                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
                                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
-        List<AccountBalanceDto> accountBalances = bankStatementService.getAccountBalances(accountNumber, from, to);
+        List<AccountBalanceDto> accountBalances = accountBalanceService.getAccountBalances(accountNumber, from, to);
         return ResponseEntity.ok(accountBalances);
     }
+
+    /**
+     * Balances of up to {@value AccountBalancesRequestDto#MAX_ACCOUNT_NUMBERS} accounts computed by one query, sent as
+     * a body since the account list does not fit a query string.
+     */
+    @PostMapping("/balances")
+    public ResponseEntity<Map<String, List<AccountBalanceDto>>> getAccountsBalances(@RequestBody @Valid AccountBalancesRequestDto request) {
+        return ResponseEntity.ok(accountBalanceService.getAccountsBalances(request.accountNumbers(), request.from(), request.to()));
+    }
+
+    private void writeExport(LocalDate from, LocalDate to, ExportFormat format, Compression compression,
+                             String acceptEncoding, HttpServletResponse httpServletResponse) {
+        String fileName = "bank-statements" + format.getFileExtension();
+        boolean compressedFile = compression != null && compression != Compression.NONE;
+        httpServletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compression == null) {
+            compression = Compression.fromAcceptEncoding(acceptEncoding);
+            if (compression != Compression.NONE) {
+                httpServletResponse.addHeader(HttpHeaders.CONTENT_ENCODING, compression.getContentEncoding());
+            }
+        }
+        if (compressedFile) {
+            httpServletResponse.setContentType(compression.getMediaType());
+            fileName += compression.getFileExtension();
+        } else {
+            httpServletResponse.setContentType(format.getMediaType());
+            if (format == ExportFormat.CSV) {
+                httpServletResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            }
+        }
+        httpServletResponse.addHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        try {
+            bankStatementService.export(from, to, format, compression, httpServletResponse.getOutputStream());
+        } catch (IOException e) {
+            throw new CsvExportFailedException(e);
+        }
+    }
+
+    private ImportSummaryDto withStoredRowsLink(ImportSummaryDto importSummary) {
+        return importSummary.toBuilder()
+                .storedRowsLink(getStoredRowsLink(importSummary))
+                .build();
+    }
+
+    private boolean isImportSummaryAccepted(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        MediaType importSummaryMediaType = MediaType.parseMediaType(ImportSummaryDto.MEDIA_TYPE);
+        return MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(importSummaryMediaType::equalsTypeAndSubtype);
+    }
+
+    private URI getImportJobLocation(ImportJobDto importJob) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/bank-statements/import/{jobId}")
+                .buildAndExpand(importJob.jobId())
+                .toUri();
+    }
+
+    private String getStoredRowsLink(ImportSummaryDto importSummary) {
+        if (importSummary.acceptedCount() == 0) {
+            return null;
+        }
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/bank-statements")
+                .queryParam("from", importSummary.firstOperationDate())
+                .queryParam("to", importSummary.lastOperationDate())
+                .queryParam("pageSize", BankStatementService.MAX_PAGE_SIZE)
+                .toUriString();
+    }
 }
@@ -0,0 +1,72 @@
+package com.inventi.bankstatementsapi.controller;
+
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+import com.inventi.bankstatementsapi.exception.ExportRejectedException;
+import com.inventi.bankstatementsapi.service.ReactiveExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Serves {@code GET /reactive/bank-statements/export}, the csv export of {@code /bank-statements/export} written
+ * with servlet non-blocking I/O: rows are read from R2DBC only when the client accepts more bytes, and neither a
+ * waiting nor a slow download holds a thread. Mounted as its own servlet next to the MVC dispatcher.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveExportHandler implements HttpHandler {
+
+    public static final String SERVLET_MAPPING = "/reactive/*";
+
+    private static final String EXPORT_PATH = "/bank-statements/export";
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final ReactiveExportService reactiveExportService;
+
+    @Override
+    public Mono<Void> handle(ServerHttpRequest request, ServerHttpResponse response) {
+        if (!EXPORT_PATH.equals(request.getPath().pathWithinApplication().value())) {
+            return writeError(response, HttpStatus.NOT_FOUND, HttpStatus.NOT_FOUND.getReasonPhrase());
+        }
+        if (request.getMethod() != HttpMethod.GET) {
+            return writeError(response, HttpStatus.METHOD_NOT_ALLOWED, HttpStatus.METHOD_NOT_ALLOWED.getReasonPhrase());
+        }
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = parseDate(request.getQueryParams().getFirst("from"));
+            to = parseDate(request.getQueryParams().getFirst("to"));
+        } catch (DateTimeParseException e) {
+            return writeError(response, HttpStatus.BAD_REQUEST, ErrorMessages.METHOD_ARGUMENT_TYPE_MISMATCH_ERROR);
+        }
+        response.getHeaders().setContentType(TEXT_CSV);
+        response.getHeaders().set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bank-statements.csv\"");
+        return response.writeWith(reactiveExportService.exportCsv(from, to, response.bufferFactory()))
+                .onErrorResume(ExportRejectedException.class, e -> response.isCommitted() ? Mono.error(e)
+                        : writeError(response, HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+    }
+
+    private static LocalDate parseDate(String date) {
+        return date == null || date.isEmpty() ? null : LocalDate.parse(date);
+    }
+
+    private static Mono<Void> writeError(ServerHttpResponse response, HttpStatus status, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().remove(HttpHeaders.CONTENT_DISPOSITION);
+        response.getHeaders().setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+        return response.writeWith(Mono.fromSupplier(() ->
+                response.bufferFactory().wrap(message.getBytes(StandardCharsets.UTF_8))));
+    }
+}
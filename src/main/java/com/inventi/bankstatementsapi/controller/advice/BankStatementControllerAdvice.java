@@ -4,13 +4,21 @@ import com.inventi.bankstatementsapi.constant.ErrorMessages;
 import com.inventi.bankstatementsapi.dto.ErrorDto;
 import com.inventi.bankstatementsapi.exception.CsvExportFailedException;
 import com.inventi.bankstatementsapi.exception.CsvImportFailedException;
+import com.inventi.bankstatementsapi.exception.ExportRejectedException;
+import com.inventi.bankstatementsapi.exception.ImportJobNotFoundException;
+import com.inventi.bankstatementsapi.exception.ImportJobRejectedException;
+import com.inventi.bankstatementsapi.exception.InvalidPageTokenException;
+import com.inventi.bankstatementsapi.exception.RejectedRowsNotAvailableException;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.time.format.DateTimeParseException;
+
 @ControllerAdvice
 public class BankStatementControllerAdvice {
 
@@ -24,6 +32,16 @@ public class BankStatementControllerAdvice {
         return dto;
     }
 
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public ErrorDto handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
+        ErrorDto dto = new ErrorDto(ErrorMessages.METHOD_ARGUMENT_NOT_VALID_ERROR);
+        e.getBindingResult().getFieldErrors()
+                .forEach(fieldError -> dto.add(fieldError.getObjectName(), fieldError.getField(), fieldError.getDefaultMessage()));
+        return dto;
+    }
+
     @ExceptionHandler(CsvImportFailedException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ResponseBody
@@ -31,6 +49,48 @@ public class BankStatementControllerAdvice {
         return e.getMessage();
     }
 
+    @ExceptionHandler(InvalidPageTokenException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public String handleInvalidPageTokenException(InvalidPageTokenException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(DateTimeParseException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public String handleDateTimeParseException(DateTimeParseException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    @ResponseBody
+    public String handleImportJobNotFoundException(ImportJobNotFoundException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(RejectedRowsNotAvailableException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    @ResponseBody
+    public String handleRejectedRowsNotAvailableException(RejectedRowsNotAvailableException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(ImportJobRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public String handleImportJobRejectedException(ImportJobRejectedException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(ExportRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public String handleExportRejectedException(ExportRejectedException e) {
+        return e.getMessage();
+    }
+
     @ExceptionHandler(CsvExportFailedException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ResponseBody
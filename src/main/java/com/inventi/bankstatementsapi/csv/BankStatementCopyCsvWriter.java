@@ -0,0 +1,60 @@
+package com.inventi.bankstatementsapi.csv;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.utils.HashUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes bank statements as rows of PostgreSQL {@code COPY ... WITH (FORMAT csv)} in the column order
+ * {@code id, account_number, operation_date, beneficiary, comment, amount, currency, row_hash}.
+ * <p>
+ * Null text is written as an unquoted empty value and every other text is quoted, so empty strings survive the copy.
+ */
+public class BankStatementCopyCsvWriter extends BufferedCsvWriter {
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    public BankStatementCopyCsvWriter(OutputStream outputStream, int bufferSize) {
+        super(outputStream, bufferSize);
+    }
+
+    public void write(BankStatement bankStatement) throws IOException {
+        appendLong(bankStatement.getId());
+        append(',');
+        appendText(bankStatement.getAccountNumber());
+        append(',');
+        appendOperationDate(bankStatement.getOperationDate());
+        append(',');
+        appendText(bankStatement.getBeneficiary());
+        append(',');
+        appendText(bankStatement.getComment());
+        append(',');
+        appendAscii(bankStatement.getAmount().toPlainString());
+        append(',');
+        appendText(bankStatement.getCurrency());
+        append(',');
+        appendBytea(HashUtils.rowHash(bankStatement));
+        append('\n');
+    }
+
+    private void appendText(String value) throws IOException {
+        if (value != null) {
+            appendQuoted(value);
+        }
+    }
+
+    /**
+     * {@code bytea} hex format.
+     */
+    private void appendBytea(byte[] value) throws IOException {
+        append('\\');
+        append('x');
+        for (byte b : value) {
+            append(HEX_DIGITS[b >> 4 & 0xF]);
+            append(HEX_DIGITS[b & 0xF]);
+        }
+    }
+}
@@ -0,0 +1,568 @@
+package com.inventi.bankstatementsapi.csv;
+
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.exception.CsvImportFailedException;
+import com.inventi.bankstatementsapi.utils.MoneyUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Parses the fixed bank statement import schema straight from UTF-8 bytes into {@link BankStatement} entities.
+ * <p>
+ * Follows the rules of the OpenCSV based bean import: the header must name only known columns and contain every
+ * required one, empty lines are ignored and rows with a wrong column count, a blank required value, an unparsable
+ * date or an amount not fitting the stored precision are skipped. Skipped rows are recorded with their row number.
+ * <p>
+ * Input held in a {@link ByteBuffer}, such as a memory-mapped file, is parsed in place: fields are kept as byte
+ * offsets into the input, dates and amounts are parsed from those bytes and only text columns are decoded from UTF-8.
+ * Only records with escaped quotes or text after a closing quote are copied to be unescaped.
+ */
+public class BankStatementCsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int END_OF_INPUT = -1;
+
+    private static final int ACCOUNT_NUMBER = 0;
+    private static final int OPERATION_DATE = 1;
+    private static final int BENEFICIARY = 2;
+    private static final int COMMENT = 3;
+    private static final int AMOUNT = 4;
+    private static final int CURRENCY = 5;
+
+    private static final String[] COLUMNS = {"accountNumber", "operationDate", "beneficiary", "comment", "amount", "currency"};
+
+    private static final boolean[] REQUIRED_COLUMNS = {true, true, true, false, true, true};
+
+    /**
+     * {@code yyyy-MM-dd'T'HH:mm:ss}
+     */
+    private static final int OPERATION_DATE_LENGTH = 19;
+
+    /**
+     * Digits always fitting an unscaled {@code long}.
+     */
+    private static final int MAX_UNSCALED_DIGITS = 18;
+
+    /**
+     * {@code null} when the whole input is already held by {@link #input}.
+     */
+    private final InputStream inputStream;
+
+    private final ByteBuffer input;
+
+    private int position;
+
+    private int limit;
+
+    private byte[] record = new byte[256];
+
+    private ByteBuffer recordView = ByteBuffer.wrap(record);
+
+    private int recordLength;
+
+    /**
+     * Bytes the field offsets of the current record point into, either {@link #input} or {@link #recordView}.
+     */
+    private ByteBuffer fields;
+
+    /**
+     * Copy of a text field of a buffer without accessible array, decoded from there.
+     */
+    private byte[] text = new byte[64];
+
+    private int[] fieldStarts = new int[8];
+
+    private int[] fieldEnds = new int[8];
+
+    private int fieldCount;
+
+    /**
+     * Schema column of every field in the file, resolved from the header.
+     */
+    private int[] columnIndexes;
+
+    /**
+     * Field of the current record holding each schema column, {@code -1} for columns missing from the file.
+     */
+    private final int[] columnFields = new int[COLUMNS.length];
+
+    private final RejectCounts skippedCounts = new RejectCounts();
+
+    private final RejectedRows skippedRows = new RejectedRows();
+
+    /**
+     * Row number of the current record, the header being row 1.
+     */
+    private long rowNumber;
+
+    public BankStatementCsvReader(InputStream inputStream) {
+        this.inputStream = inputStream;
+        this.input = ByteBuffer.wrap(new byte[BUFFER_SIZE]);
+    }
+
+    /**
+     * Parses the remaining bytes of {@code input} in place, without copying them.
+     */
+    public BankStatementCsvReader(ByteBuffer input) {
+        this.inputStream = null;
+        this.input = input.slice();
+        this.limit = this.input.limit();
+    }
+
+    /**
+     * Reads and validates the header, must be called before the first {@link #next()}.
+     */
+    public void readHeader() throws IOException {
+        skipByteOrderMark();
+        if (!readRecord()) {
+            throw new CsvImportFailedException(ErrorMessages.IMPORT_CSV_FAILED_HEADER_IS_MISSING);
+        }
+        columnIndexes = new int[fieldCount];
+        boolean[] presentColumns = new boolean[COLUMNS.length];
+        for (int field = 0; field < fieldCount; field++) {
+            int column = findColumn(decode(field));
+            if (column < 0) {
+                throw new CsvImportFailedException(ErrorMessages.IMPORT_CSV_FAILED_HEADER_IS_INVALID);
+            }
+            columnIndexes[field] = column;
+            presentColumns[column] = true;
+        }
+        for (int column = 0; column < COLUMNS.length; column++) {
+            if (REQUIRED_COLUMNS[column] && !presentColumns[column]) {
+                throw new CsvImportFailedException(ErrorMessages.IMPORT_CSV_FAILED_HEADER_IS_INVALID);
+            }
+        }
+    }
+
+    /**
+     * Creates a reader for a segment of the same file cut by {@link BankStatementCsvSplitter}, reusing the columns
+     * resolved by {@link #readHeader()} of this reader.
+     *
+     * @param firstRowNumber row number of the first record of the segment in the file
+     */
+    public BankStatementCsvReader forSegment(ByteBuffer segment, long firstRowNumber) {
+        BankStatementCsvReader reader = new BankStatementCsvReader(segment);
+        reader.columnIndexes = columnIndexes;
+        reader.rowNumber = firstRowNumber - 1;
+        return reader;
+    }
+
+    /**
+     * @return next parsable bank statement or {@code null} when the input is exhausted
+     */
+    public BankStatement next() throws IOException {
+        while (readRecord()) {
+            if (isEmptyLine()) {
+                continue;
+            }
+            BankStatement bankStatement = toBankStatement();
+            if (bankStatement != null) {
+                return bankStatement;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return number of the row the last bank statement returned by {@link #next()} was read from, the header being
+     * row 1
+     */
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * @return amount of rows skipped because they could not be converted
+     */
+    public long getSkippedCount() {
+        return skippedCounts.getTotal();
+    }
+
+    /**
+     * @return rows skipped so far per reason, updated as reading continues
+     */
+    public RejectCounts getSkippedCounts() {
+        return skippedCounts;
+    }
+
+    /**
+     * @return row numbers and reasons of rows skipped so far
+     */
+    public RejectedRows getSkippedRows() {
+        return skippedRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (inputStream != null) {
+            inputStream.close();
+        }
+    }
+
+    private BankStatement toBankStatement() {
+        if (fieldCount != columnIndexes.length) {
+            return skip(RejectReason.COLUMN_COUNT);
+        }
+        int[] fields = columnFields;
+        Arrays.fill(fields, -1);
+        for (int field = 0; field < fieldCount; field++) {
+            int column = columnIndexes[field];
+            if (REQUIRED_COLUMNS[column] && isBlank(field)) {
+                return skip(RejectReason.MISSING_VALUE);
+            }
+            fields[column] = field;
+        }
+        LocalDateTime operationDate = parseOperationDate(fields[OPERATION_DATE]);
+        if (operationDate == null) {
+            return skip(RejectReason.INVALID_DATE);
+        }
+        BigDecimal amount = parseAmount(fields[AMOUNT]);
+        if (amount == null || !MoneyUtils.isValidAmount(amount)) {
+            return skip(RejectReason.INVALID_AMOUNT);
+        }
+        return BankStatement.builder()
+                .accountNumber(decode(fields[ACCOUNT_NUMBER]))
+                .operationDate(operationDate)
+                .beneficiary(decode(fields[BENEFICIARY]))
+                .comment(fields[COMMENT] < 0 ? null : decode(fields[COMMENT]))
+                .amount(amount)
+                .currency(decode(fields[CURRENCY]))
+                .build();
+    }
+
+    private BankStatement skip(RejectReason reason) {
+        skippedCounts.add(reason);
+        skippedRows.add(rowNumber, reason);
+        return null;
+    }
+
+    private LocalDateTime parseOperationDate(int field) {
+        int start = trimStart(field);
+        int end = trimEnd(field, start);
+        if (end - start != OPERATION_DATE_LENGTH || fields.get(start + 4) != '-' || fields.get(start + 7) != '-'
+                || fields.get(start + 10) != 'T' || fields.get(start + 13) != ':' || fields.get(start + 16) != ':') {
+            return null;
+        }
+        int year = parseDigits(start, 4);
+        int month = parseDigits(start + 5, 2);
+        int day = parseDigits(start + 8, 2);
+        int hour = parseDigits(start + 11, 2);
+        int minute = parseDigits(start + 14, 2);
+        int second = parseDigits(start + 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private int parseDigits(int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = fields.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses plain decimals such as {@code -1234.56} digit by digit into an unscaled value, anything else falls back
+     * to {@link BigDecimal#BigDecimal(String)}.
+     */
+    private BigDecimal parseAmount(int field) {
+        int start = trimStart(field);
+        int end = trimEnd(field, start);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (fields.get(i) == '-' || fields.get(i) == '+')) {
+            negative = fields.get(i) == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            byte b = fields.get(i);
+            if (b >= '0' && b <= '9') {
+                unscaled = unscaled * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == end && digits > 0 && digits <= MAX_UNSCALED_DIGITS) {
+            return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+        }
+        try {
+            return new BigDecimal(decode(start, end, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private int trimStart(int field) {
+        int start = fieldStarts[field];
+        while (start < fieldEnds[field] && fields.get(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int field, int start) {
+        int end = fieldEnds[field];
+        while (end > start && fields.get(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private boolean isBlank(int field) {
+        for (int i = fieldStarts[field]; i < fieldEnds[field]; i++) {
+            if (!Character.isWhitespace(fields.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isEmptyLine() {
+        return fieldCount == 1 && fieldEnds[0] == fieldStarts[0];
+    }
+
+    private String decode(int field) {
+        return decode(fieldStarts[field], fieldEnds[field], StandardCharsets.UTF_8);
+    }
+
+    private String decode(int start, int end, Charset charset) {
+        int length = end - start;
+        if (fields.hasArray()) {
+            return new String(fields.array(), fields.arrayOffset() + start, length, charset);
+        }
+        if (text.length < length) {
+            text = new byte[Math.max(length, text.length * 2)];
+        }
+        fields.get(start, text, 0, length);
+        return new String(text, 0, length, charset);
+    }
+
+    private static int findColumn(String name) {
+        for (int column = 0; column < COLUMNS.length; column++) {
+            if (COLUMNS[column].equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads one record, in place when the input is held in memory and no field has to be unescaped.
+     *
+     * @return {@code false} when the input is exhausted
+     */
+    private boolean readRecord() throws IOException {
+        fieldCount = 0;
+        if (peekByte() == END_OF_INPUT) {
+            return false;
+        }
+        rowNumber++;
+        if (inputStream != null || !readRecordInPlace()) {
+            readEscapedRecord();
+        }
+        return true;
+    }
+
+    /**
+     * Points the fields straight at their bytes in {@link #input}, quoted fields without escaped quotes included.
+     *
+     * @return {@code false}, with nothing consumed, when a field has to be unescaped
+     */
+    private boolean readRecordInPlace() {
+        int i = position;
+        while (true) {
+            int fieldStart = i;
+            if (i < limit && input.get(i) == '"') {
+                int closingQuote = i + 1;
+                while (closingQuote < limit && input.get(closingQuote) != '"') {
+                    closingQuote++;
+                }
+                i = closingQuote + 1;
+                if (closingQuote == limit || i < limit && !isDelimiter(input.get(i))) {
+                    fieldCount = 0;
+                    return false;
+                }
+                addField(fieldStart + 1, closingQuote);
+            } else {
+                byte b;
+                while (i < limit && !isDelimiter(b = input.get(i))) {
+                    if (b == '"') {
+                        fieldCount = 0;
+                        return false;
+                    }
+                    i++;
+                }
+                addField(fieldStart, i);
+            }
+            if (i == limit || input.get(i) != ',') {
+                break;
+            }
+            i++;
+        }
+        if (i < limit && input.get(i++) == '\r' && i < limit && input.get(i) == '\n') {
+            i++;
+        }
+        position = i;
+        fields = input;
+        return true;
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * Reads one record into {@link #record}, unescaping quoted fields which may span several lines.
+     */
+    private void readEscapedRecord() throws IOException {
+        recordLength = 0;
+        fields = recordView;
+        int b = nextByte();
+        startField();
+        while (true) {
+            if (b == '"') {
+                b = readQuotedField();
+            }
+            while (b != ',' && b != '\n' && b != '\r' && b != END_OF_INPUT) {
+                append((byte) b);
+                b = nextByte();
+            }
+            endField();
+            if (b != ',') {
+                break;
+            }
+            startField();
+            b = nextByte();
+        }
+        if (b == '\r' && peekByte() == '\n') {
+            nextByte();
+        }
+    }
+
+    /**
+     * @return first byte after the closing quote
+     */
+    private int readQuotedField() throws IOException {
+        while (true) {
+            int b = nextByte();
+            if (b == END_OF_INPUT) {
+                return b;
+            }
+            if (b == '"') {
+                if (peekByte() != '"') {
+                    return nextByte();
+                }
+                nextByte();
+            }
+            append((byte) b);
+        }
+    }
+
+    private void startField() {
+        growFields();
+        fieldStarts[fieldCount] = recordLength;
+    }
+
+    private void endField() {
+        fieldEnds[fieldCount++] = recordLength;
+    }
+
+    private void addField(int start, int end) {
+        growFields();
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount++] = end;
+    }
+
+    private void growFields() {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+    }
+
+    private void append(byte b) {
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, recordLength * 2);
+            recordView = ByteBuffer.wrap(record);
+            fields = recordView;
+        }
+        record[recordLength++] = b;
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        if (fill() && limit - position >= 3 && (input.get(position) & 0xFF) == 0xEF
+                && (input.get(position + 1) & 0xFF) == 0xBB && (input.get(position + 2) & 0xFF) == 0xBF) {
+            position += 3;
+        }
+    }
+
+    private int nextByte() throws IOException {
+        if (position == limit && !fill()) {
+            return END_OF_INPUT;
+        }
+        return input.get(position++) & 0xFF;
+    }
+
+    private int peekByte() throws IOException {
+        if (position == limit && !fill()) {
+            return END_OF_INPUT;
+        }
+        return input.get(position) & 0xFF;
+    }
+
+    /**
+     * Refills the buffer once it has been consumed, keeping at least three bytes available when possible.
+     */
+    private boolean fill() throws IOException {
+        if (inputStream == null) {
+            return position < limit;
+        }
+        byte[] buffer = input.array();
+        if (position < limit) {
+            int remaining = limit - position;
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+            limit = remaining;
+        } else {
+            limit = 0;
+        }
+        position = 0;
+        while (limit < 3) {
+            int read = inputStream.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                break;
+            }
+            limit += read;
+        }
+        return limit > 0;
+    }
+}
@@ -0,0 +1,148 @@
+package com.inventi.bankstatementsapi.csv;
+
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+import com.inventi.bankstatementsapi.exception.CsvImportFailedException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Cuts raw CSV input into segments of whole records so they can be parsed independently. Records are delimited like
+ * {@link BankStatementCsvReader} does: a line break outside of a quoted value ends a record, a quote opens a quoted
+ * value only at the start of a field and is a literal anywhere else, and {@code \r\n} is one line break. Every
+ * segment therefore holds exactly the records the reader parses from it, which keeps row numbers aligned.
+ */
+public class BankStatementCsvSplitter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Longest record accepted, bounds the buffer of a quoted value that is never closed.
+     */
+    private static final int MAX_RECORD_LENGTH = 1024 * 1024;
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    /**
+     * {@code null} when the whole input is already held by {@link #input}.
+     */
+    private final InputStream inputStream;
+
+    private ByteBuffer input;
+
+    private int position;
+
+    private int limit;
+
+    private boolean endOfInput;
+
+    public BankStatementCsvSplitter(InputStream inputStream) {
+        this.inputStream = inputStream;
+        this.input = ByteBuffer.wrap(new byte[BUFFER_SIZE]);
+    }
+
+    /**
+     * Splits the remaining bytes of {@code input}, such as a memory-mapped file, into slices sharing its content.
+     */
+    public BankStatementCsvSplitter(ByteBuffer input) {
+        this.inputStream = null;
+        this.input = input.slice();
+        this.limit = this.input.limit();
+        this.endOfInput = true;
+    }
+
+    /**
+     * @return bytes of at most {@code recordCount} whole records or {@code null} when the input is exhausted, a
+     * slice of the input when it is held in memory and a copy otherwise
+     */
+    public ByteBuffer nextSegment(int recordCount) throws IOException {
+        int scan = position;
+        int recordStart = position;
+        int records = 0;
+        int state = FIELD_START;
+        boolean carriageReturn = false;
+        while (records < recordCount || carriageReturn) {
+            if (scan == limit) {
+                if (endOfInput) {
+                    break;
+                }
+                int shift = compact();
+                scan -= shift;
+                recordStart -= shift;
+                fill();
+                continue;
+            }
+            byte b = input.get(scan);
+            if (carriageReturn) {
+                carriageReturn = false;
+                if (b == '\n') {
+                    scan++;
+                    recordStart = scan;
+                }
+                continue;
+            }
+            scan++;
+            if (state == QUOTED) {
+                if (b == '"') {
+                    state = QUOTE_IN_QUOTED;
+                }
+            } else if (b == '\n' || b == '\r') {
+                records++;
+                recordStart = scan;
+                state = FIELD_START;
+                carriageReturn = b == '\r';
+            } else if (b == ',') {
+                state = FIELD_START;
+            } else if (b == '"' && state != UNQUOTED) {
+                // opens a value at field start, an escaped quote right after a quote inside a quoted value
+                state = QUOTED;
+            } else {
+                state = UNQUOTED;
+            }
+            if (scan - recordStart > MAX_RECORD_LENGTH) {
+                throw new CsvImportFailedException(ErrorMessages.IMPORT_CSV_FAILED_RECORD_IS_TOO_LONG);
+            }
+        }
+        if (scan == position) {
+            return null;
+        }
+        ByteBuffer segment = inputStream == null ? input.slice(position, scan - position)
+                : ByteBuffer.wrap(Arrays.copyOfRange(input.array(), position, scan));
+        position = scan;
+        return segment;
+    }
+
+    /**
+     * Moves the pending segment to the start of the buffer, growing it when the segment already fills it.
+     *
+     * @return amount of bytes the pending segment moved by
+     */
+    private int compact() {
+        int shift = position;
+        int pending = limit - position;
+        byte[] buffer = input.array();
+        if (pending == buffer.length) {
+            input = ByteBuffer.wrap(Arrays.copyOf(buffer, buffer.length * 2));
+        } else if (shift > 0) {
+            System.arraycopy(buffer, position, buffer, 0, pending);
+        }
+        position = 0;
+        limit = pending;
+        return shift;
+    }
+
+    private void fill() throws IOException {
+        byte[] buffer = input.array();
+        int read = inputStream.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.inventi.bankstatementsapi.csv;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.utils.MoneyUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes bank statements in the export csv layout: upper case header columns in alphabetical order and every value
+ * quoted, without creating intermediate beans.
+ * <p>
+ * Rows are encoded as UTF-8 straight into a byte buffer which is handed to the stream whenever it fills up, so the
+ * stream sees few large writes. {@link #flush()} must be called after the last row.
+ */
+public class BankStatementCsvWriter extends BufferedCsvWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] HEADER =
+            "\"ACCOUNTNUMBER\",\"AMOUNT\",\"BENEFICIARY\",\"COMMENT\",\"CURRENCY\",\"ID\",\"OPERATIONDATE\"\n"
+                    .getBytes(StandardCharsets.US_ASCII);
+
+    private boolean headerWritten;
+
+    public BankStatementCsvWriter(OutputStream outputStream) {
+        this(outputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BankStatementCsvWriter(OutputStream outputStream, int bufferSize) {
+        super(outputStream, bufferSize);
+    }
+
+    /**
+     * Writes the header before the first row, so an empty export stays empty.
+     */
+    public void write(BankStatement bankStatement) throws IOException {
+        if (!headerWritten) {
+            for (byte b : HEADER) {
+                append(b);
+            }
+            headerWritten = true;
+        }
+        appendQuoted(bankStatement.getAccountNumber());
+        append(',');
+        BigDecimal amount = MoneyUtils.toCurrencyScale(bankStatement.getAmount(), bankStatement.getCurrency());
+        appendQuoted(amount == null ? null : amount.toString());
+        append(',');
+        appendQuoted(bankStatement.getBeneficiary());
+        append(',');
+        appendQuoted(bankStatement.getComment());
+        append(',');
+        appendQuoted(bankStatement.getCurrency());
+        append(',');
+        append('"');
+        if (bankStatement.getId() != null) {
+            appendLong(bankStatement.getId());
+        }
+        append('"');
+        append(',');
+        append('"');
+        appendOperationDate(bankStatement.getOperationDate());
+        append('"');
+        append('\n');
+    }
+}
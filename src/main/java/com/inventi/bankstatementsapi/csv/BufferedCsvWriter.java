@@ -0,0 +1,134 @@
+package com.inventi.bankstatementsapi.csv;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Encodes csv values as UTF-8 straight into a byte buffer which is handed to the stream whenever it fills up, so the
+ * stream sees few large writes. {@link #flush()} must be called after the last row.
+ */
+abstract class BufferedCsvWriter implements Flushable {
+
+    private static final DateTimeFormatter OPERATION_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final OutputStream outputStream;
+
+    private final byte[] buffer;
+
+    private int position;
+
+    BufferedCsvWriter(OutputStream outputStream, int bufferSize) {
+        this.outputStream = outputStream;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Hands buffered rows to the stream and flushes it.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        outputStream.flush();
+    }
+
+    void appendQuoted(String value) throws IOException {
+        append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    if (c == '"') {
+                        append('"');
+                    }
+                    append(c);
+                } else if (c < 0x800) {
+                    append(0xC0 | c >> 6);
+                    append(0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    append(0xF0 | codePoint >> 18);
+                    append(0x80 | codePoint >> 12 & 0x3F);
+                    append(0x80 | codePoint >> 6 & 0x3F);
+                    append(0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    // unpaired surrogates are replaced like String#getBytes does
+                    append('?');
+                } else {
+                    append(0xE0 | c >> 12);
+                    append(0x80 | c >> 6 & 0x3F);
+                    append(0x80 | c & 0x3F);
+                }
+            }
+        }
+        append('"');
+    }
+
+    void appendOperationDate(LocalDateTime operationDate) throws IOException {
+        if (operationDate == null) {
+            return;
+        }
+        int year = operationDate.getYear();
+        if (year < 1000 || year > 9999) {
+            appendAscii(OPERATION_DATE_FORMATTER.format(operationDate));
+            return;
+        }
+        appendLong(year);
+        append('-');
+        appendTwoDigits(operationDate.getMonthValue());
+        append('-');
+        appendTwoDigits(operationDate.getDayOfMonth());
+        append('T');
+        appendTwoDigits(operationDate.getHour());
+        append(':');
+        appendTwoDigits(operationDate.getMinute());
+        append(':');
+        appendTwoDigits(operationDate.getSecond());
+    }
+
+    void appendAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            append(value.charAt(i));
+        }
+    }
+
+    private void appendTwoDigits(int value) throws IOException {
+        append('0' + value / 10);
+        append('0' + value % 10);
+    }
+
+    void appendLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            appendAscii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            append((int) ('0' + value / divisor % 10));
+        }
+    }
+
+    void append(int b) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            outputStream.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
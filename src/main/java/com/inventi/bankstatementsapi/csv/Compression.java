@@ -0,0 +1,146 @@
+package com.inventi.bankstatementsapi.csv;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stream compression of csv imports and exports, named by its {@code Content-Encoding} token.
+ */
+public enum Compression {
+
+    NONE("identity", "", "text/csv", List.of()) {
+        @Override
+        public OutputStream compress(OutputStream outputStream, int level, int bufferSize) {
+            return outputStream;
+        }
+
+        @Override
+        public InputStream decompress(InputStream inputStream) {
+            return inputStream;
+        }
+    },
+    GZIP("gzip", ".gz", "application/gzip", List.of("application/gzip", "application/x-gzip")) {
+        @Override
+        public OutputStream compress(OutputStream outputStream, int level, int bufferSize) throws IOException {
+            return new GZIPOutputStream(outputStream, bufferSize) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+
+        @Override
+        public InputStream decompress(InputStream inputStream) throws IOException {
+            return new GZIPInputStream(inputStream, GZIP_INPUT_BUFFER_SIZE);
+        }
+    },
+    ZSTD("zstd", ".zst", "application/zstd", List.of("application/zstd")) {
+        @Override
+        public OutputStream compress(OutputStream outputStream, int level, int bufferSize) throws IOException {
+            return new ZstdOutputStream(outputStream, level);
+        }
+
+        @Override
+        public InputStream decompress(InputStream inputStream) throws IOException {
+            return new ZstdInputStream(inputStream);
+        }
+    };
+
+    private static final int GZIP_INPUT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Preferred order when a client accepts several encodings, zstd compresses faster at a similar ratio.
+     */
+    private static final List<Compression> NEGOTIATION_ORDER = List.of(ZSTD, GZIP);
+
+    private final String contentEncoding;
+
+    private final String fileExtension;
+
+    private final String mediaType;
+
+    private final List<String> uploadMediaTypes;
+
+    Compression(String contentEncoding, String fileExtension, String mediaType, List<String> uploadMediaTypes) {
+        this.contentEncoding = contentEncoding;
+        this.fileExtension = fileExtension;
+        this.mediaType = mediaType;
+        this.uploadMediaTypes = uploadMediaTypes;
+    }
+
+    /**
+     * Wraps the stream, closing the returned stream finishes the compressed output and closes {@code outputStream}.
+     *
+     * @param level      algorithm specific compression level
+     * @param bufferSize size of the buffer holding compressed output, ignored where the algorithm manages it
+     */
+    public abstract OutputStream compress(OutputStream outputStream, int level, int bufferSize) throws IOException;
+
+    public abstract InputStream decompress(InputStream inputStream) throws IOException;
+
+    /**
+     * @return source whose every stream is decompressed
+     */
+    public InputStreamSource decompress(InputStreamSource source) {
+        return this == NONE ? source : () -> decompress(source.getInputStream());
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @return whether an upload of this compression may be sent with the given content type, compressed uploads may
+     * also be sent as plain csv or as octet stream since clients rarely label them
+     */
+    public boolean isUploadMediaType(String contentType) {
+        return NONE.mediaType.equals(contentType)
+                || this != NONE && ("application/octet-stream".equals(contentType) || uploadMediaTypes.contains(contentType));
+    }
+
+    /**
+     * Picks the preferred supported encoding of an {@code Accept-Encoding} header, encodings with {@code q=0} are
+     * treated as refused.
+     *
+     * @return {@link #NONE} when the header is missing or accepts no supported encoding
+     */
+    public static Compression fromAcceptEncoding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return NONE;
+        }
+        List<String> acceptedEncodings = Arrays.stream(acceptEncoding.split(","))
+                .map(String::trim)
+                .filter(encoding -> !isRefused(encoding))
+                .map(encoding -> encoding.split(";")[0].trim().toLowerCase(Locale.ROOT))
+                .toList();
+        return NEGOTIATION_ORDER.stream()
+                .filter(compression -> acceptedEncodings.contains(compression.contentEncoding))
+                .findFirst()
+                .orElse(NONE);
+    }
+
+    private static boolean isRefused(String encoding) {
+        return Arrays.stream(encoding.split(";"))
+                .skip(1)
+                .map(parameter -> parameter.replace(" ", ""))
+                .anyMatch(parameter -> parameter.matches("q=0(\\.0*)?"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.inventi.bankstatementsapi.csv;
+
+/**
+ * Rows rejected per {@link RejectReason}, counted in a plain array so rejecting a row does not allocate. Not thread
+ * safe, every chunk is counted by a single thread and merged afterwards.
+ */
+public class RejectCounts {
+
+    private static final RejectReason[] REASONS = RejectReason.values();
+
+    private final long[] counts = new long[REASONS.length];
+
+    public void add(RejectReason reason) {
+        counts[reason.ordinal()]++;
+    }
+
+    public void addAll(RejectCounts rejectCounts) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += rejectCounts.counts[i];
+        }
+    }
+
+    public long get(RejectReason reason) {
+        return counts[reason.ordinal()];
+    }
+
+    public long getTotal() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,33 @@
+package com.inventi.bankstatementsapi.csv;
+
+import java.util.Locale;
+
+/**
+ * Why an import row was left out, reported as the {@code reason} tag of rejected row metrics.
+ */
+public enum RejectReason {
+
+    /**
+     * Row has more or fewer fields than the header.
+     */
+    COLUMN_COUNT,
+
+    /**
+     * Required value is blank.
+     */
+    MISSING_VALUE,
+
+    /**
+     * Operation date is not an ISO local date time.
+     */
+    INVALID_DATE,
+
+    /**
+     * Amount is not a number or does not fit the stored precision.
+     */
+    INVALID_AMOUNT;
+
+    public String getTagValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,63 @@
+package com.inventi.bankstatementsapi.csv;
+
+import java.util.Arrays;
+
+/**
+ * Row numbers and reasons of rejected rows, kept in growing arrays so rejecting a row does not allocate. Not thread
+ * safe, every chunk is collected by a single thread.
+ */
+public class RejectedRows {
+
+    private long[] rowNumbers = new long[16];
+
+    private RejectReason[] reasons = new RejectReason[16];
+
+    private int size;
+
+    public void add(long rowNumber, RejectReason reason) {
+        if (size == rowNumbers.length) {
+            rowNumbers = Arrays.copyOf(rowNumbers, size * 2);
+            reasons = Arrays.copyOf(reasons, size * 2);
+        }
+        rowNumbers[size] = rowNumber;
+        reasons[size++] = reason;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of the row in the file, the header being row 1
+     */
+    public long getRowNumber(int index) {
+        return rowNumbers[index];
+    }
+
+    public RejectReason getReason(int index) {
+        return reasons[index];
+    }
+
+    /**
+     * @return rows of both, in row number order when each of them is
+     */
+    public static RejectedRows merge(RejectedRows first, RejectedRows second) {
+        if (second.size == 0) {
+            return first;
+        }
+        if (first.size == 0) {
+            return second;
+        }
+        RejectedRows merged = new RejectedRows();
+        int i = 0;
+        int j = 0;
+        while (i < first.size || j < second.size) {
+            if (j == second.size || i < first.size && first.rowNumbers[i] <= second.rowNumbers[j]) {
+                merged.add(first.rowNumbers[i], first.reasons[i++]);
+            } else {
+                merged.add(second.rowNumbers[j], second.reasons[j++]);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,37 @@
+package com.inventi.bankstatementsapi.csv;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes rejected rows of an import as {@code rowNumber,reason} csv lines.
+ */
+public class RejectedRowsCsvWriter implements Closeable {
+
+    private static final String HEADER = "rowNumber,reason\n";
+
+    private final BufferedWriter writer;
+
+    public RejectedRowsCsvWriter(OutputStream outputStream) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.US_ASCII));
+        writer.write(HEADER);
+    }
+
+    public void write(RejectedRows rejectedRows) throws IOException {
+        for (int i = 0; i < rejectedRows.size(); i++) {
+            writer.write(Long.toString(rejectedRows.getRowNumber(i)));
+            writer.write(',');
+            writer.write(rejectedRows.getReason(i).getTagValue());
+            writer.write('\n');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -1,5 +1,7 @@
 package com.inventi.bankstatementsapi.dto;
 
+import java.math.BigDecimal;
+
 public record AccountBalanceDto(String currency,
-                                Double amount) {
+                                BigDecimal amount) {
 }
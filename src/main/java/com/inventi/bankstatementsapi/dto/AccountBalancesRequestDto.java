@@ -0,0 +1,18 @@
+package com.inventi.bankstatementsapi.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * @param from first day of the range, the start of time when missing
+ * @param to   day the range ends at, today when missing
+ */
+public record AccountBalancesRequestDto(@NotEmpty @Size(max = MAX_ACCOUNT_NUMBERS) List<@NotBlank String> accountNumbers,
+                                        LocalDate from,
+                                        LocalDate to) {
+
+    public static final int MAX_ACCOUNT_NUMBERS = 1000;
+}
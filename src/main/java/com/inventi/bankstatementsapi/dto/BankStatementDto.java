@@ -2,6 +2,7 @@ package com.inventi.bankstatementsapi.dto;
 
 import lombok.Builder;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 
@@ -11,7 +12,7 @@ public record BankStatementDto(Long id,
                                LocalDateTime operationDate,
                                String beneficiary,
                                String comment,
-                               Double amount,
+                               BigDecimal amount,
                                String currency
 ) {
 
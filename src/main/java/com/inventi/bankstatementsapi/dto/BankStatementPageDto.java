@@ -0,0 +1,10 @@
+package com.inventi.bankstatementsapi.dto;
+
+import java.util.List;
+
+/**
+ * @param nextPageToken pass as {@code pageToken} to read the following page, {@code null} on the last page
+ */
+public record BankStatementPageDto(List<BankStatementDto> items,
+                                   String nextPageToken) {
+}
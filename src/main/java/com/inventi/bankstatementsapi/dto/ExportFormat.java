@@ -0,0 +1,26 @@
+package com.inventi.bankstatementsapi.dto;
+
+public enum ExportFormat {
+    CSV("text/csv", ".csv"),
+    /**
+     * Arrow IPC stream of record batches.
+     */
+    ARROW("application/vnd.apache.arrow.stream", ".arrows");
+
+    private final String mediaType;
+
+    private final String fileExtension;
+
+    ExportFormat(String mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
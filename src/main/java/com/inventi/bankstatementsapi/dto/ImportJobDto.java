@@ -0,0 +1,16 @@
+package com.inventi.bankstatementsapi.dto;
+
+import lombok.Builder;
+
+@Builder
+public record ImportJobDto(String jobId,
+                           String fileName,
+                           ImportJobStatus status,
+                           long parsedCount,
+                           long insertedCount,
+                           long rejectedCount,
+                           long duplicateCount,
+                           long elapsedMillis,
+                           long rowsPerSecond,
+                           String error) {
+}
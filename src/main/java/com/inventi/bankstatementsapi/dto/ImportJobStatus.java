@@ -0,0 +1,8 @@
+package com.inventi.bankstatementsapi.dto;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
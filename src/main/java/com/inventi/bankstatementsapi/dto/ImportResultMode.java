@@ -0,0 +1,6 @@
+package com.inventi.bankstatementsapi.dto;
+
+public enum ImportResultMode {
+    ROWS,
+    SUMMARY
+}
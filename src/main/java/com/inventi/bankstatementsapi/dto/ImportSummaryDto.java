@@ -0,0 +1,18 @@
+package com.inventi.bankstatementsapi.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Builder(toBuilder = true)
+public record ImportSummaryDto(long acceptedCount,
+                               long rejectedCount,
+                               long duplicateCount,
+                               long elapsedMillis,
+                               LocalDateTime firstOperationDate,
+                               LocalDateTime lastOperationDate,
+                               String storedRowsLink) {
+
+    public static final String MEDIA_TYPE = "application/vnd.bank-statements.import-summary+json";
+
+}
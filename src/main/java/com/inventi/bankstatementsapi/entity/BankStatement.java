@@ -1,11 +1,13 @@
 package com.inventi.bankstatementsapi.entity;
 
+import com.inventi.bankstatementsapi.utils.MoneyUtils;
 import lombok.*;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -18,8 +20,10 @@ import java.time.LocalDateTime;
 @Builder
 public class BankStatement {
 
+    /**
+     * Assigned by {@link com.inventi.bankstatementsapi.repository.BankStatementIdAllocator} when the row is stored.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -35,15 +39,15 @@ public class BankStatement {
     @Column(name = "comment")
     private String comment;
 
-    @Column(name = "amount", nullable = false)
-    private Double amount;
+    @Column(name = "amount", nullable = false, precision = 18, scale = 4)
+    private BigDecimal amount;
 
     @Column(name = "currency", nullable = false, length = 10)
     private String currency;
 
     public boolean isValid() {
         return StringUtils.isNoneBlank(accountNumber, beneficiary, currency) &&
-                amount != null && operationDate != null;
+                MoneyUtils.isValidAmount(amount) && operationDate != null;
     }
 
     @Override
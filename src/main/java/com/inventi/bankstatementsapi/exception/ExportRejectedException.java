@@ -0,0 +1,11 @@
+package com.inventi.bankstatementsapi.exception;
+
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+
+public class ExportRejectedException extends RuntimeException {
+
+    public ExportRejectedException() {
+        super(ErrorMessages.EXPORT_REJECTED_TOO_MANY_EXPORTS);
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.inventi.bankstatementsapi.exception;
+
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+
+public class ImportJobNotFoundException extends RuntimeException {
+
+    public ImportJobNotFoundException() {
+        super(ErrorMessages.IMPORT_JOB_NOT_FOUND);
+    }
+
+}
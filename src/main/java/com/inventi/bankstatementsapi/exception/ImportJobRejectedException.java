@@ -0,0 +1,11 @@
+package com.inventi.bankstatementsapi.exception;
+
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+
+public class ImportJobRejectedException extends RuntimeException {
+
+    public ImportJobRejectedException(Throwable cause) {
+        super(ErrorMessages.IMPORT_JOB_REJECTED_TOO_MANY_JOBS, cause);
+    }
+
+}
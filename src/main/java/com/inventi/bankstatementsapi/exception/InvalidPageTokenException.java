@@ -0,0 +1,11 @@
+package com.inventi.bankstatementsapi.exception;
+
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+
+public class InvalidPageTokenException extends RuntimeException {
+
+    public InvalidPageTokenException(Throwable cause) {
+        super(ErrorMessages.PAGE_TOKEN_IS_INVALID, cause);
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.inventi.bankstatementsapi.exception;
+
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+
+public class RejectedRowsNotAvailableException extends RuntimeException {
+
+    public RejectedRowsNotAvailableException() {
+        super(ErrorMessages.REJECTED_ROWS_NOT_AVAILABLE);
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.inventi.bankstatementsapi.repository;
+
+import java.math.BigDecimal;
+
+public interface AccountBalanceView {
+
+    String getCurrency();
+
+    BigDecimal getAmount();
+
+}
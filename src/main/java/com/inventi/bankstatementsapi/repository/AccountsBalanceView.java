@@ -0,0 +1,7 @@
+package com.inventi.bankstatementsapi.repository;
+
+public interface AccountsBalanceView extends AccountBalanceView {
+
+    String getAccountNumber();
+
+}
@@ -0,0 +1,98 @@
+package com.inventi.bankstatementsapi.repository;
+
+import com.inventi.bankstatementsapi.csv.BankStatementCopyCsvWriter;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads bank statements with PostgreSQL {@code COPY ... FROM STDIN}, bypassing JPA for large imports.
+ * <p>
+ * {@code COPY} cannot skip conflicting rows, so rows are copied into a session scoped staging table first and moved
+ * into {@code bank_statement} with {@code ON CONFLICT DO NOTHING}. Rows are encoded into a reused buffer and written
+ * straight into the copy stream, without building the chunk in memory.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BankStatementCopyRepository {
+
+    private static final String CREATE_STAGING_TABLE_SQL = "CREATE TEMPORARY TABLE IF NOT EXISTS " +
+            "bank_statement_staging (LIKE bank_statement INCLUDING DEFAULTS)";
+
+    private static final String COPY_SQL = "COPY bank_statement_staging " +
+            "(id, account_number, operation_date, beneficiary, comment, amount, currency, row_hash) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MOVE_STAGED_ROWS_SQL = "WITH staged AS (DELETE FROM bank_statement_staging RETURNING *) " +
+            "INSERT INTO bank_statement " +
+            "(id, account_number, operation_date, beneficiary, comment, amount, currency, row_hash) " +
+            "SELECT id, account_number, operation_date, beneficiary, comment, amount, currency, row_hash FROM staged " +
+            "ON CONFLICT (row_hash, operation_date) DO NOTHING RETURNING id";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The writer hands over whole buffers, which the copy stream passes on without buffering them again.
+     */
+    private static final int COPY_STREAM_BUFFER_SIZE = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final BankStatementIdAllocator bankStatementIdAllocator;
+
+    /**
+     * Assigns ids to every bank statement and copies them, must run in a transaction so the staging table is used
+     * by a single connection.
+     *
+     * @return bank statements actually inserted, without duplicates of stored rows or of each other
+     */
+    public List<BankStatement> copy(List<BankStatement> bankStatements) {
+        if (bankStatements.isEmpty()) {
+            return List.of();
+        }
+        long[] ids = bankStatementIdAllocator.allocate(bankStatements.size());
+        for (int i = 0; i < ids.length; i++) {
+            bankStatements.get(i).setId(ids[i]);
+        }
+        jdbcTemplate.execute(CREATE_STAGING_TABLE_SQL);
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            PGCopyOutputStream copyStream = new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_SQL,
+                    COPY_STREAM_BUFFER_SIZE);
+            try {
+                BankStatementCopyCsvWriter writer = new BankStatementCopyCsvWriter(copyStream, BUFFER_SIZE);
+                for (BankStatement bankStatement : bankStatements) {
+                    writer.write(bankStatement);
+                }
+                writer.flush();
+                return copyStream.endCopy();
+            } catch (IOException e) {
+                cancelCopy(copyStream);
+                throw new IllegalStateException("Failed to copy bank statements", e);
+            } catch (SQLException | RuntimeException e) {
+                cancelCopy(copyStream);
+                throw e;
+            }
+        });
+        Set<Long> insertedIds = new HashSet<>(jdbcTemplate.queryForList(MOVE_STAGED_ROWS_SQL, Long.class));
+        return bankStatements.stream()
+                .filter(bankStatement -> insertedIds.contains(bankStatement.getId()))
+                .toList();
+    }
+
+    private static void cancelCopy(CopyIn copyIn) throws SQLException {
+        if (copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+    }
+}
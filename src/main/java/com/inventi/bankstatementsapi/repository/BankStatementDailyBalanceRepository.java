@@ -0,0 +1,71 @@
+package com.inventi.bankstatementsapi.repository;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.utils.MoneyUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the {@code bank_statement_daily_balance} rollup read by {@link BankStatementRepository#getAccountBalances}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BankStatementDailyBalanceRepository {
+
+    private static final String ADD_SQL = "INSERT INTO bank_statement_daily_balance " +
+            "(account_number, day, currency, amount) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (account_number, day, currency) " +
+            "DO UPDATE SET amount = bank_statement_daily_balance.amount + EXCLUDED.amount";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds the amounts of newly stored bank statements, must run in the transaction that stores them. Rows are
+     * summed as {@link MoneyUtils#AMOUNT_SCALE} scaled units and upserted in key order so concurrent imports lock
+     * them in the same order.
+     */
+    public void add(List<BankStatement> bankStatements) {
+        Map<DailyBalanceKey, long[]> amounts = new TreeMap<>();
+        for (BankStatement bankStatement : bankStatements) {
+            LocalDate day = bankStatement.getOperationDate().toLocalDate();
+            long units = MoneyUtils.toUnits(bankStatement.getAmount());
+            add(amounts, new DailyBalanceKey(bankStatement.getAccountNumber(), day, bankStatement.getCurrency()), -units);
+            add(amounts, new DailyBalanceKey(bankStatement.getBeneficiary(), day, bankStatement.getCurrency()), units);
+        }
+        if (amounts.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ADD_SQL, amounts.entrySet(), amounts.size(), (preparedStatement, amount) -> {
+            preparedStatement.setString(1, amount.getKey().accountNumber());
+            preparedStatement.setObject(2, amount.getKey().day());
+            preparedStatement.setString(3, amount.getKey().currency());
+            preparedStatement.setBigDecimal(4, MoneyUtils.fromUnits(amount.getValue()[0]));
+        });
+    }
+
+    private void add(Map<DailyBalanceKey, long[]> amounts, DailyBalanceKey key, long units) {
+        long[] total = amounts.computeIfAbsent(key, newKey -> new long[1]);
+        total[0] = Math.addExact(total[0], units);
+    }
+
+    private record DailyBalanceKey(String accountNumber,
+                                   LocalDate day,
+                                   String currency) implements Comparable<DailyBalanceKey> {
+
+        private static final Comparator<DailyBalanceKey> ORDER = Comparator.comparing(DailyBalanceKey::accountNumber)
+                .thenComparing(DailyBalanceKey::day)
+                .thenComparing(DailyBalanceKey::currency);
+
+        @Override
+        public int compareTo(DailyBalanceKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
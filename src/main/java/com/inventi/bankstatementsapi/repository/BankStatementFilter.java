@@ -0,0 +1,16 @@
+package com.inventi.bankstatementsapi.repository;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criteria of a bank statement listing, {@code null} values do not restrict it.
+ */
+@Builder
+public record BankStatementFilter(String accountNumber,
+                                  String beneficiary,
+                                  LocalDateTime from,
+                                  LocalDateTime to,
+                                  String currency) {
+}
@@ -0,0 +1,34 @@
+package com.inventi.bankstatementsapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Hands out bank statement ids from {@code bank_statement_seq} for the insert and COPY paths.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BankStatementIdAllocator {
+
+    private static final String ALLOCATE_ID_BLOCKS_SQL = "SELECT nextval('bank_statement_seq') FROM generate_series(1, ?)";
+
+    /**
+     * Matches the increment of {@code bank_statement_seq}, every sequence value reserves a block this size.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long[] allocate(int count) {
+        int blockCount = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> idBlocks = jdbcTemplate.queryForList(ALLOCATE_ID_BLOCKS_SQL, Long.class, blockCount);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = idBlocks.get(i / ID_BLOCK_SIZE) + i % ID_BLOCK_SIZE;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,36 @@
+package com.inventi.bankstatementsapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.OptionalLong;
+
+/**
+ * Remembers the SHA-256 digest of every fully imported file.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BankStatementImportFileRepository {
+
+    private static final String FIND_ROW_COUNT_SQL = "SELECT row_count FROM bank_statement_import_file WHERE digest = ?";
+
+    private static final String SAVE_SQL = "INSERT INTO bank_statement_import_file " +
+            "(digest, file_name, row_count, imported_at) VALUES (?, ?, ?, ?) ON CONFLICT (digest) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return rows stored from an earlier import of the same file, empty when it has not been imported
+     */
+    public OptionalLong findRowCount(byte[] digest) {
+        return jdbcTemplate.queryForList(FIND_ROW_COUNT_SQL, Long.class, digest).stream()
+                .mapToLong(Long::longValue)
+                .findFirst();
+    }
+
+    public void save(byte[] digest, String fileName, long rowCount) {
+        jdbcTemplate.update(SAVE_SQL, digest, fileName, rowCount, LocalDateTime.now());
+    }
+}
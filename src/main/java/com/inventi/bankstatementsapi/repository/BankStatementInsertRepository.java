@@ -0,0 +1,105 @@
+package com.inventi.bankstatementsapi.repository;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.utils.HashUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inserts bank statements not stored yet, rows whose content hash already exists are skipped by the database.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BankStatementInsertRepository {
+
+    /**
+     * One statement per chunk, every column is bound as an array and expanded with {@code unnest}.
+     */
+    private static final String INSERT_SQL = "INSERT INTO bank_statement " +
+            "(id, account_number, operation_date, beneficiary, comment, amount, currency, row_hash) " +
+            "SELECT * FROM unnest(?::BIGINT[], ?::VARCHAR[], ?::TIMESTAMP[], ?::VARCHAR[], ?::VARCHAR[], " +
+            "?::NUMERIC[], ?::VARCHAR[], ?::BYTEA[]) " +
+            "ON CONFLICT (row_hash, operation_date) DO NOTHING RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final BankStatementIdAllocator bankStatementIdAllocator;
+
+    /**
+     * Assigns ids to every bank statement and inserts them.
+     *
+     * @return bank statements actually inserted, without duplicates of stored rows or of each other
+     */
+    public List<BankStatement> insertNew(List<BankStatement> bankStatements) {
+        if (bankStatements.isEmpty()) {
+            return List.of();
+        }
+        long[] ids = bankStatementIdAllocator.allocate(bankStatements.size());
+        for (int i = 0; i < ids.length; i++) {
+            bankStatements.get(i).setId(ids[i]);
+        }
+        Set<Long> insertedIds = jdbcTemplate.execute((ConnectionCallback<Set<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                bindColumns(connection, statement, bankStatements);
+                return readIds(statement);
+            }
+        });
+        return bankStatements.stream()
+                .filter(bankStatement -> insertedIds.contains(bankStatement.getId()))
+                .toList();
+    }
+
+    private void bindColumns(Connection connection, PreparedStatement statement, List<BankStatement> bankStatements)
+            throws SQLException {
+        int size = bankStatements.size();
+        Long[] ids = new Long[size];
+        String[] accountNumbers = new String[size];
+        Timestamp[] operationDates = new Timestamp[size];
+        String[] beneficiaries = new String[size];
+        String[] comments = new String[size];
+        BigDecimal[] amounts = new BigDecimal[size];
+        String[] currencies = new String[size];
+        byte[][] rowHashes = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            BankStatement bankStatement = bankStatements.get(i);
+            ids[i] = bankStatement.getId();
+            accountNumbers[i] = bankStatement.getAccountNumber();
+            operationDates[i] = Timestamp.valueOf(bankStatement.getOperationDate());
+            beneficiaries[i] = bankStatement.getBeneficiary();
+            comments[i] = bankStatement.getComment();
+            amounts[i] = bankStatement.getAmount();
+            currencies[i] = bankStatement.getCurrency();
+            rowHashes[i] = HashUtils.rowHash(bankStatement);
+        }
+        statement.setArray(1, connection.createArrayOf("bigint", ids));
+        statement.setArray(2, connection.createArrayOf("varchar", accountNumbers));
+        statement.setArray(3, connection.createArrayOf("timestamp", operationDates));
+        statement.setArray(4, connection.createArrayOf("varchar", beneficiaries));
+        statement.setArray(5, connection.createArrayOf("varchar", comments));
+        statement.setArray(6, connection.createArrayOf("numeric", amounts));
+        statement.setArray(7, connection.createArrayOf("varchar", currencies));
+        statement.setArray(8, connection.createArrayOf("bytea", rowHashes));
+    }
+
+    private Set<Long> readIds(PreparedStatement statement) throws SQLException {
+        Set<Long> ids = new HashSet<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
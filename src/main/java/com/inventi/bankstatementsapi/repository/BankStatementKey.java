@@ -0,0 +1,10 @@
+package com.inventi.bankstatementsapi.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of a bank statement in listing order.
+ */
+public record BankStatementKey(LocalDateTime operationDate,
+                               long id) {
+}
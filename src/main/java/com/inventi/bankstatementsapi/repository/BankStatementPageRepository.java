@@ -0,0 +1,16 @@
+package com.inventi.bankstatementsapi.repository;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+
+import java.util.List;
+
+public interface BankStatementPageRepository {
+
+    /**
+     * Seeks past {@code after} instead of skipping rows, so every page costs the same however deep it is.
+     *
+     * @param after key of the last bank statement of the previous page, {@code null} for the first page
+     * @return at most {@code limit} bank statements ordered by operation date and id
+     */
+    List<BankStatement> findPage(BankStatementFilter filter, BankStatementKey after, int limit);
+}
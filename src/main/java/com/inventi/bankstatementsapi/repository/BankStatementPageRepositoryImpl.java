@@ -0,0 +1,62 @@
+package com.inventi.bankstatementsapi.repository;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import lombok.RequiredArgsConstructor;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@RequiredArgsConstructor
+public class BankStatementPageRepositoryImpl implements BankStatementPageRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BankStatement> findPage(BankStatementFilter filter, BankStatementKey after, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BankStatement> query = criteriaBuilder.createQuery(BankStatement.class);
+        Root<BankStatement> bankStatement = query.from(BankStatement.class);
+        Path<LocalDateTime> operationDate = bankStatement.get("operationDate");
+        Path<Long> id = bankStatement.get("id");
+        List<Predicate> predicates = new ArrayList<>();
+        addEqual(predicates, criteriaBuilder, bankStatement.get("accountNumber"), filter.accountNumber());
+        addEqual(predicates, criteriaBuilder, bankStatement.get("beneficiary"), filter.beneficiary());
+        addEqual(predicates, criteriaBuilder, bankStatement.get("currency"), filter.currency());
+        if (filter.from() != null) {
+            predicates.add(criteriaBuilder.greaterThanOrEqualTo(operationDate, filter.from()));
+        }
+        if (filter.to() != null) {
+            predicates.add(criteriaBuilder.lessThanOrEqualTo(operationDate, filter.to()));
+        }
+        if (after != null) {
+            // (operation_date, id) > (after) with a plain range on operation_date the indexes can seek to
+            predicates.add(criteriaBuilder.greaterThanOrEqualTo(operationDate, after.operationDate()));
+            predicates.add(criteriaBuilder.or(
+                    criteriaBuilder.greaterThan(operationDate, after.operationDate()),
+                    criteriaBuilder.greaterThan(id, after.id())));
+        }
+        query.select(bankStatement)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(criteriaBuilder.asc(operationDate), criteriaBuilder.asc(id));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    private static void addEqual(List<Predicate> predicates, CriteriaBuilder criteriaBuilder, Path<String> path,
+                                 String value) {
+        if (value != null) {
+            predicates.add(criteriaBuilder.equal(path, value));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.inventi.bankstatementsapi.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Manages the monthly range partitions of {@code bank_statement}, named {@code bank_statement_yyyy_mm}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BankStatementPartitionRepository {
+
+    private static final String PARTITION_PREFIX = "bank_statement_";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String FIND_PARTITIONS_SQL = "SELECT partition.relname FROM pg_inherits " +
+            "JOIN pg_class partition ON partition.oid = pg_inherits.inhrelid " +
+            "WHERE pg_inherits.inhparent = 'bank_statement'::regclass ORDER BY partition.relname";
+
+    /**
+     * Serializes partition creation between application instances, so a partition is attached only once.
+     */
+    private static final String LOCK_PARTITIONS_SQL = "SELECT pg_advisory_xact_lock(hashtext('bank_statement_partitions'))";
+
+    private static final String IS_ATTACHED_SQL = "SELECT EXISTS (SELECT 1 FROM pg_inherits " +
+            "WHERE inhrelid = to_regclass(?) AND inhparent = 'bank_statement'::regclass)";
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS %s (LIKE bank_statement INCLUDING DEFAULTS)";
+
+    private static final String ATTACH_PARTITION_SQL = "ALTER TABLE bank_statement ATTACH PARTITION %s " +
+            "FOR VALUES FROM ('%s') TO ('%s')";
+
+    private static final String DETACH_PARTITION_SQL = "ALTER TABLE bank_statement DETACH PARTITION %s CONCURRENTLY";
+
+    private static final String DELETE_DAILY_BALANCES_SQL = "DELETE FROM bank_statement_daily_balance WHERE day >= ? AND day < ?";
+
+    private static final String RENAME_TABLE_SQL = "ALTER TABLE %s RENAME TO %s";
+
+    private static final DateTimeFormatter ARCHIVE_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<YearMonth> findPartitions() {
+        return jdbcTemplate.queryForList(FIND_PARTITIONS_SQL, String.class).stream()
+                .filter(BankStatementPartitionRepository::isMonthlyPartition)
+                .map(name -> YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX_FORMATTER))
+                .toList();
+    }
+
+    /**
+     * Creates the partition as a plain table and attaches it, which unlike {@code CREATE TABLE ... PARTITION OF} does
+     * not lock out queries and inserts running against {@code bank_statement}. A table detached but not yet archived by
+     * {@link #archive} is attached again.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void create(YearMonth month) {
+        String partitionName = getPartitionName(month);
+        jdbcTemplate.queryForList(LOCK_PARTITIONS_SQL);
+        if (isAttached(partitionName)) {
+            return;
+        }
+        jdbcTemplate.execute(String.format(CREATE_TABLE_SQL, partitionName));
+        jdbcTemplate.execute(String.format(ATTACH_PARTITION_SQL, partitionName,
+                month.atDay(1), month.plusMonths(1).atDay(1)));
+    }
+
+    /**
+     * Turns the partition into a standalone table without blocking queries, must not run inside a transaction.
+     */
+    public void detach(YearMonth month) {
+        jdbcTemplate.execute(String.format(DETACH_PARTITION_SQL, getPartitionName(month)));
+    }
+
+    /**
+     * Renames a detached partition to {@code bank_statement_yyyy_mm_archived_<timestamp>}, so rows imported for its
+     * month later go to a new partition instead of attaching the archived rows again, and removes the daily balances
+     * of its month, which were summed only from its rows. Does nothing if the partition got attached again meanwhile.
+     *
+     * @return name of the archived table, {@code null} if the partition is attached
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public String archive(YearMonth month) {
+        String partitionName = getPartitionName(month);
+        jdbcTemplate.queryForList(LOCK_PARTITIONS_SQL);
+        if (isAttached(partitionName)) {
+            return null;
+        }
+        String archiveName = partitionName + "_archived_" + ARCHIVE_SUFFIX_FORMATTER.format(LocalDateTime.now());
+        jdbcTemplate.update(DELETE_DAILY_BALANCES_SQL, month.atDay(1), month.plusMonths(1).atDay(1));
+        jdbcTemplate.execute(String.format(RENAME_TABLE_SQL, partitionName, archiveName));
+        return archiveName;
+    }
+
+    private boolean isAttached(String partitionName) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_ATTACHED_SQL, Boolean.class, partitionName));
+    }
+
+    private static String getPartitionName(YearMonth month) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX_FORMATTER.format(month);
+    }
+
+    private static boolean isMonthlyPartition(String name) {
+        return name.matches(PARTITION_PREFIX + "\\d{4}_\\d{2}");
+    }
+}
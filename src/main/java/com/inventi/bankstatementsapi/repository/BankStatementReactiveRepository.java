@@ -0,0 +1,80 @@
+package com.inventi.bankstatementsapi.repository;
+
+import com.inventi.bankstatementsapi.config.ExportProperties;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Reads bank statements over R2DBC for exports that must not hold a thread while the client is slow. The pool is
+ * built from the JDBC connection settings and kept out of the application context, since an R2DBC connection
+ * factory bean would turn off the JDBC DataSource auto-configuration.
+ */
+@Repository
+public class BankStatementReactiveRepository {
+
+    private static final String JDBC_URL_PREFIX = "jdbc:";
+
+    private static final String STREAM_BY_OPERATION_DATE_SQL = "SELECT id, account_number, operation_date, " +
+            "beneficiary, comment, amount, currency FROM bank_statement " +
+            "WHERE operation_date BETWEEN :from AND :to";
+
+    private final ConnectionPool connectionPool;
+
+    private final DatabaseClient databaseClient;
+
+    private final int fetchSize;
+
+    public BankStatementReactiveRepository(DataSourceProperties dataSourceProperties,
+                                           ExportProperties exportProperties) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions
+                .parse("r2dbc:" + dataSourceProperties.determineUrl().substring(JDBC_URL_PREFIX.length()))
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, dataSourceProperties.determineUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.determinePassword())
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(0)
+                .maxSize(exportProperties.getReactivePoolSize())
+                .maxAcquireTime(exportProperties.getReactiveAcquireTimeout())
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+        this.fetchSize = exportProperties.getReactiveFetchSize();
+    }
+
+    /**
+     * Rows are fetched from a cursor {@code fetchSize} at a time as the subscriber requests them, so a slow
+     * subscriber leaves the remaining rows in the database instead of in memory.
+     */
+    public Flux<BankStatement> streamAllByOperationDateIsBetween(LocalDateTime from, LocalDateTime to) {
+        return databaseClient.sql(STREAM_BY_OPERATION_DATE_SQL)
+                .bind("from", from)
+                .bind("to", to)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(this::toBankStatement)
+                .all();
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    private BankStatement toBankStatement(Readable row) {
+        return new BankStatement(row.get("id", Long.class), row.get("account_number", String.class),
+                row.get("operation_date", LocalDateTime.class), row.get("beneficiary", String.class),
+                row.get("comment", String.class), row.get("amount", BigDecimal.class),
+                row.get("currency", String.class));
+    }
+}
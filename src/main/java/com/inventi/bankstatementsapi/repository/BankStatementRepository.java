@@ -1,15 +1,106 @@
 package com.inventi.bankstatementsapi.repository;
 
 import com.inventi.bankstatementsapi.entity.BankStatement;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface BankStatementRepository extends CrudRepository<BankStatement, Long> {
-    List<BankStatement> findAllByOperationDateIsBetween(LocalDateTime from, LocalDateTime to);
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
-    List<BankStatement> findAllByAccountNumberAndOperationDateIsBetween(String accountNumber, LocalDateTime from, LocalDateTime to);
+public interface BankStatementRepository extends CrudRepository<BankStatement, Long>, BankStatementPageRepository {
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<BankStatement> streamAllByOperationDateIsBetween(LocalDateTime from, LocalDateTime to);
 
-    List<BankStatement> findAllByBeneficiaryAndOperationDateIsBetween(String accountNumber, LocalDateTime from, LocalDateTime to);
+    /**
+     * Nets received minus sent amounts per currency. Whole days are summed from the daily balance rollup, only the
+     * partially covered days at either end of the range are read from bank statements through the account and
+     * beneficiary indexes. A transfer from the account to itself is counted as both sent and received and cancels out.
+     */
+    String ACCOUNT_BALANCES_SQL = "SELECT currency, SUM(amount) AS amount FROM (" +
+            "SELECT currency, amount FROM bank_statement_daily_balance " +
+            "WHERE account_number = :accountNumber AND day >= :wholeDaysFrom AND day < :wholeDaysTo " +
+            "UNION ALL " +
+            "SELECT currency, -amount FROM bank_statement " +
+            "WHERE account_number = :accountNumber AND (" +
+            "(operation_date >= :from AND operation_date < :wholeDaysFrom AND operation_date <= :to) " +
+            "OR (operation_date >= :wholeDaysTo AND operation_date <= :to)) " +
+            "UNION ALL " +
+            "SELECT currency, amount FROM bank_statement " +
+            "WHERE beneficiary = :accountNumber AND (" +
+            "(operation_date >= :from AND operation_date < :wholeDaysFrom AND operation_date <= :to) " +
+            "OR (operation_date >= :wholeDaysTo AND operation_date <= :to))" +
+            ") account_amounts GROUP BY currency ORDER BY currency";
+
+    /**
+     * @param wholeDaysFrom first day lying entirely within the range
+     * @param wholeDaysTo   day after the last day lying entirely within the range, not before {@code wholeDaysFrom}
+     */
+    @Query(value = ACCOUNT_BALANCES_SQL, nativeQuery = true)
+    List<AccountBalanceView> getAccountBalances(@Param("accountNumber") String accountNumber,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                @Param("wholeDaysFrom") LocalDate wholeDaysFrom,
+                                                @Param("wholeDaysTo") LocalDate wholeDaysTo);
+
+    default List<AccountBalanceView> getAccountBalances(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        LocalDate wholeDaysFrom = getWholeDaysFrom(from);
+        return getAccountBalances(accountNumber, from, to, wholeDaysFrom, getWholeDaysTo(to, wholeDaysFrom));
+    }
+
+    /**
+     * {@link #ACCOUNT_BALANCES_SQL} for several accounts at once, grouped by account as well.
+     */
+    String ACCOUNTS_BALANCES_SQL = "SELECT account_number AS \"accountNumber\", currency, SUM(amount) AS amount FROM (" +
+            "SELECT account_number, currency, amount FROM bank_statement_daily_balance " +
+            "WHERE account_number IN (:accountNumbers) AND day >= :wholeDaysFrom AND day < :wholeDaysTo " +
+            "UNION ALL " +
+            "SELECT account_number, currency, -amount FROM bank_statement " +
+            "WHERE account_number IN (:accountNumbers) AND (" +
+            "(operation_date >= :from AND operation_date < :wholeDaysFrom AND operation_date <= :to) " +
+            "OR (operation_date >= :wholeDaysTo AND operation_date <= :to)) " +
+            "UNION ALL " +
+            "SELECT beneficiary, currency, amount FROM bank_statement " +
+            "WHERE beneficiary IN (:accountNumbers) AND (" +
+            "(operation_date >= :from AND operation_date < :wholeDaysFrom AND operation_date <= :to) " +
+            "OR (operation_date >= :wholeDaysTo AND operation_date <= :to))" +
+            ") account_amounts GROUP BY account_number, currency ORDER BY account_number, currency";
+
+    /**
+     * @return balances of accounts having bank statements in the range, other accounts are left out
+     */
+    @Query(value = ACCOUNTS_BALANCES_SQL, nativeQuery = true)
+    List<AccountsBalanceView> getAccountsBalances(@Param("accountNumbers") Collection<String> accountNumbers,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to,
+                                                  @Param("wholeDaysFrom") LocalDate wholeDaysFrom,
+                                                  @Param("wholeDaysTo") LocalDate wholeDaysTo);
+
+    default List<AccountsBalanceView> getAccountsBalances(Collection<String> accountNumbers, LocalDateTime from,
+                                                          LocalDateTime to) {
+        LocalDate wholeDaysFrom = getWholeDaysFrom(from);
+        return getAccountsBalances(accountNumbers, from, to, wholeDaysFrom, getWholeDaysTo(to, wholeDaysFrom));
+    }
+
+    private static LocalDate getWholeDaysFrom(LocalDateTime from) {
+        return from.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? from.toLocalDate()
+                : from.toLocalDate().plusDays(1);
+    }
+
+    private static LocalDate getWholeDaysTo(LocalDateTime to, LocalDate wholeDaysFrom) {
+        return to.toLocalDate().isAfter(wholeDaysFrom) ? to.toLocalDate() : wholeDaysFrom;
+    }
 }
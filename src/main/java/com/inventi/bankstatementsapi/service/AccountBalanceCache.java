@@ -0,0 +1,198 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.inventi.bankstatementsapi.config.BalanceCacheProperties;
+import com.inventi.bankstatementsapi.dto.AccountBalanceDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Size and time bounded cache of account balances, invalidated per account once an import commits rows sent or
+ * received by it. Hits, misses and evictions are published as {@code cache.*} metrics named {@value #CACHE_NAME}.
+ * <p>
+ * A balance loaded while an import commits may predate it, so every account has a generation bumped by
+ * {@link #invalidate(Collection)}. Loads capture it before querying and cache it with the balances, which are only
+ * served while it is still current. Generations are striped by account number to stay bounded, an account sharing a
+ * stripe with an invalidated one only reloads once more. Cached keys are indexed by account number, so invalidation
+ * removes the keys of its accounts without scanning the whole cache.
+ */
+@Component
+public class AccountBalanceCache {
+
+    public static final String CACHE_NAME = "accountBalances";
+
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final Cache<AccountBalanceKey, CachedAccountBalances> cache;
+
+    private final Map<String, Set<AccountBalanceKey>> keysByAccountNumber = new ConcurrentHashMap<>();
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public AccountBalanceCache(BalanceCacheProperties balanceCacheProperties, MeterRegistry meterRegistry) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(balanceCacheProperties.getMaximumSize())
+                .expireAfterWrite(balanceCacheProperties.getTimeToLive())
+                .evictionListener((AccountBalanceKey key, CachedAccountBalances cachedAccountBalances, RemovalCause cause) ->
+                        unindex(key))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public List<AccountBalanceDto> get(String accountNumber, LocalDateTime from, LocalDateTime to,
+                                       Supplier<List<AccountBalanceDto>> accountBalancesLoader) {
+        AccountBalanceKey accountBalanceKey = new AccountBalanceKey(accountNumber, from, to);
+        while (true) {
+            boolean[] loaded = {false};
+            CachedAccountBalances cachedAccountBalances = cache.get(accountBalanceKey, key -> {
+                loaded[0] = true;
+                long generation = getGeneration(accountNumber);
+                index(key);
+                List<AccountBalanceDto> accountBalances = accountBalancesLoader.get();
+                return accountBalances == null ? null : new CachedAccountBalances(accountBalances, generation);
+            });
+            if (cachedAccountBalances == null) {
+                return null;
+            }
+            if (isCurrent(accountBalanceKey, cachedAccountBalances) || removeStale(accountBalanceKey, cachedAccountBalances, loaded[0])) {
+                return cachedAccountBalances.accountBalances();
+            }
+        }
+    }
+
+    /**
+     * Looks up every account at once, {@code accountBalancesLoader} receives only the accounts missing from the cache
+     * and must return balances for each of them.
+     *
+     * @return balances in the iteration order of {@code accountNumbers}
+     */
+    public Map<String, List<AccountBalanceDto>> getAll(Collection<String> accountNumbers, LocalDateTime from,
+                                                       LocalDateTime to,
+                                                       Function<Set<String>, Map<String, List<AccountBalanceDto>>> accountBalancesLoader) {
+        List<AccountBalanceKey> keys = accountNumbers.stream()
+                .map(accountNumber -> new AccountBalanceKey(accountNumber, from, to))
+                .toList();
+        Map<AccountBalanceKey, List<AccountBalanceDto>> accountBalances = new HashMap<>();
+        List<AccountBalanceKey> pendingKeys = keys;
+        while (!pendingKeys.isEmpty()) {
+            Set<AccountBalanceKey> loadedKeys = new HashSet<>();
+            Map<AccountBalanceKey, CachedAccountBalances> cachedAccountBalances = cache.getAll(pendingKeys, missingKeys -> {
+                Map<String, Long> loadedGenerations = new HashMap<>();
+                missingKeys.forEach(key -> {
+                    loadedGenerations.put(key.accountNumber(), getGeneration(key.accountNumber()));
+                    loadedKeys.add(key);
+                    index(key);
+                });
+                Map<AccountBalanceKey, CachedAccountBalances> loadedAccountBalances = new HashMap<>();
+                accountBalancesLoader.apply(loadedGenerations.keySet()).forEach((accountNumber, balances) ->
+                        loadedAccountBalances.put(new AccountBalanceKey(accountNumber, from, to),
+                                new CachedAccountBalances(balances, loadedGenerations.get(accountNumber))));
+                return loadedAccountBalances;
+            });
+            pendingKeys = pendingKeys.stream()
+                    .filter(key -> {
+                        CachedAccountBalances cached = cachedAccountBalances.get(key);
+                        if (cached == null || isCurrent(key, cached) || removeStale(key, cached, loadedKeys.contains(key))) {
+                            accountBalances.put(key, cached == null ? null : cached.accountBalances());
+                            return false;
+                        }
+                        return true;
+                    })
+                    .toList();
+        }
+        Map<String, List<AccountBalanceDto>> accountBalancesByAccountNumber = new LinkedHashMap<>();
+        keys.forEach(key -> accountBalancesByAccountNumber.put(key.accountNumber(), accountBalances.get(key)));
+        return accountBalancesByAccountNumber;
+    }
+
+    /**
+     * Discards the cached balances of the accounts, balances still being loaded for them are not served once cached.
+     */
+    public void invalidate(Collection<String> accountNumbers) {
+        for (String accountNumber : accountNumbers) {
+            generations.incrementAndGet(getGenerationStripe(accountNumber));
+            Set<AccountBalanceKey> keys = keysByAccountNumber.remove(accountNumber);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+    }
+
+    /**
+     * Discards every cached balance, balances still being loaded are not served once cached.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        keysByAccountNumber.clear();
+        cache.invalidateAll();
+    }
+
+    private boolean isCurrent(AccountBalanceKey key, CachedAccountBalances cachedAccountBalances) {
+        return cachedAccountBalances.generation() == getGeneration(key.accountNumber());
+    }
+
+    /**
+     * Balances loaded by the caller are still returned to it, as its query ran concurrently with the import, while
+     * stale balances loaded earlier are reloaded.
+     *
+     * @return whether the caller may return the stale balances
+     */
+    private boolean removeStale(AccountBalanceKey key, CachedAccountBalances cachedAccountBalances, boolean loaded) {
+        cache.asMap().remove(key, cachedAccountBalances);
+        return loaded;
+    }
+
+    private long getGeneration(String accountNumber) {
+        return generations.get(getGenerationStripe(accountNumber));
+    }
+
+    private static int getGenerationStripe(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), GENERATION_STRIPES);
+    }
+
+    private void index(AccountBalanceKey key) {
+        keysByAccountNumber.compute(key.accountNumber(), (accountNumber, keys) -> {
+            Set<AccountBalanceKey> accountKeys = keys == null ? new HashSet<>() : keys;
+            accountKeys.add(key);
+            return accountKeys;
+        });
+    }
+
+    private void unindex(AccountBalanceKey key) {
+        keysByAccountNumber.computeIfPresent(key.accountNumber(), (accountNumber, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private record AccountBalanceKey(String accountNumber,
+                                     LocalDateTime from,
+                                     LocalDateTime to) {
+    }
+
+    /**
+     * @param generation generation of the account captured before the balances were queried
+     */
+    private record CachedAccountBalances(List<AccountBalanceDto> accountBalances,
+                                         long generation) {
+    }
+}
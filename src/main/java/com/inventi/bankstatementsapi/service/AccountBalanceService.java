@@ -0,0 +1,62 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.dto.AccountBalanceDto;
+import com.inventi.bankstatementsapi.mapper.BankStatementMapper;
+import com.inventi.bankstatementsapi.repository.BankStatementRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static com.inventi.bankstatementsapi.utils.DateUtils.getFrom;
+import static com.inventi.bankstatementsapi.utils.DateUtils.getTo;
+
+/**
+ * Reads account balances through {@link AccountBalanceCache}, querying the repository only for missing accounts.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccountBalanceService {
+
+    private final BankStatementRepository bankStatementRepository;
+
+    private final AccountBalanceCache accountBalanceCache;
+
+    private final BankStatementMapper bankStatementMapper = new BankStatementMapper();
+
+    /**
+     * Computes the balances of every account missing from the cache with a single query.
+     *
+     * @return per currency balances keyed by account number in request order, empty for accounts without statements
+     */
+    public Map<String, List<AccountBalanceDto>> getAccountsBalances(Collection<String> accountNumbers, LocalDate from,
+                                                                    LocalDate to) {
+        LocalDateTime dateTimeFrom = getFrom(from);
+        LocalDateTime dateTimeTo = getTo(to);
+        return accountBalanceCache.getAll(new LinkedHashSet<>(accountNumbers), dateTimeFrom, dateTimeTo,
+                missingAccountNumbers -> {
+                    Map<String, List<AccountBalanceDto>> accountBalances = new HashMap<>();
+                    missingAccountNumbers.forEach(accountNumber -> accountBalances.put(accountNumber, new ArrayList<>()));
+                    bankStatementRepository.getAccountsBalances(missingAccountNumbers, dateTimeFrom, dateTimeTo)
+                            .forEach(accountBalance -> accountBalances.get(accountBalance.getAccountNumber())
+                                    .add(bankStatementMapper.toDto(accountBalance)));
+                    return accountBalances;
+                });
+    }
+
+    public List<AccountBalanceDto> getAccountBalances(String accountNumber, LocalDate from, LocalDate to) {
+        LocalDateTime dateTimeFrom = getFrom(from);
+        LocalDateTime dateTimeTo = getTo(to);
+        return accountBalanceCache.get(accountNumber, dateTimeFrom, dateTimeTo,
+                () -> bankStatementRepository.getAccountBalances(accountNumber, dateTimeFrom, dateTimeTo).stream()
+                        .map(bankStatementMapper::toDto)
+                        .toList());
+    }
+}
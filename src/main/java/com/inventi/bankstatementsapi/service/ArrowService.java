@@ -0,0 +1,28 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.arrow.BankStatementArrowWriter;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import lombok.SneakyThrows;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class ArrowService {
+
+    /**
+     * Writes bank statements as an Arrow IPC stream, holding at most one batch of {@code batchSize} rows in memory.
+     */
+    @SneakyThrows
+    public void writeBankStatementsToArrow(Stream<BankStatement> bankStatements, OutputStream outputStream, int batchSize) {
+        try (BankStatementArrowWriter writer = new BankStatementArrowWriter(outputStream, batchSize)) {
+            Iterator<BankStatement> iterator = bankStatements.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+            }
+            writer.finish();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.repository.BankStatementCopyRepository;
+import com.inventi.bankstatementsapi.repository.BankStatementDailyBalanceRepository;
+import com.inventi.bankstatementsapi.repository.BankStatementInsertRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stores one import chunk, skipping rows already stored, and adds the inserted rows to the daily balance rollup in
+ * the same transaction. Cached balances of every account sending or receiving an inserted row are invalidated once
+ * the transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class BankStatementChunkWriter {
+
+    private final BankStatementInsertRepository bankStatementInsertRepository;
+
+    private final BankStatementCopyRepository bankStatementCopyRepository;
+
+    private final BankStatementDailyBalanceRepository bankStatementDailyBalanceRepository;
+
+    private final AccountBalanceCache accountBalanceCache;
+
+    /**
+     * @return inserted bank statements, duplicates are left out
+     */
+    @Transactional
+    public List<BankStatement> save(List<BankStatement> bankStatements) {
+        return addToRollup(bankStatementInsertRepository.insertNew(bankStatements));
+    }
+
+    /**
+     * @return inserted bank statements, duplicates are left out
+     */
+    @Transactional
+    public List<BankStatement> copy(List<BankStatement> bankStatements) {
+        return addToRollup(bankStatementCopyRepository.copy(bankStatements));
+    }
+
+    private List<BankStatement> addToRollup(List<BankStatement> insertedBankStatements) {
+        if (!insertedBankStatements.isEmpty()) {
+            bankStatementDailyBalanceRepository.add(insertedBankStatements);
+            invalidateAccountBalancesAfterCommit(insertedBankStatements);
+        }
+        return insertedBankStatements;
+    }
+
+    private void invalidateAccountBalancesAfterCommit(List<BankStatement> bankStatements) {
+        Set<String> accountNumbers = new HashSet<>();
+        for (BankStatement bankStatement : bankStatements) {
+            accountNumbers.add(bankStatement.getAccountNumber());
+            accountNumbers.add(bankStatement.getBeneficiary());
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accountBalanceCache.invalidate(accountNumbers);
+            }
+        });
+    }
+}
@@ -0,0 +1,179 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.csv.Compression;
+import com.inventi.bankstatementsapi.csv.RejectCounts;
+import com.inventi.bankstatementsapi.csv.RejectReason;
+import com.inventi.bankstatementsapi.dto.ExportFormat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Import and export meters, published as {@code bank.statements.*}. Meters are recorded once per chunk or file,
+ * never per row, so the parser threads only count rows in plain fields. Query latency of repository methods is
+ * published by Spring Boot as {@code spring.data.repository.invocations}.
+ */
+@Component
+public class BankStatementMetrics {
+
+    public static final String IMPORT_ROWS = "bank.statements.import.rows";
+
+    public static final String IMPORT_REJECTED_ROWS = "bank.statements.import.rejected.rows";
+
+    public static final String IMPORT_STAGE = "bank.statements.import.stage";
+
+    public static final String IMPORT_DURATION = "bank.statements.import";
+
+    public static final String IMPORT_BYTES = "bank.statements.import.bytes";
+
+    public static final String IMPORT_THROUGHPUT = "bank.statements.import.throughput";
+
+    public static final String EXPORT_DURATION = "bank.statements.export";
+
+    public static final String EXPORT_ROWS = "bank.statements.export.rows";
+
+    public static final String EXPORT_BYTES = "bank.statements.export.bytes";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter acceptedRows;
+
+    private final Counter duplicateRows;
+
+    private final Counter rejectedRows;
+
+    private final Map<RejectReason, Counter> rejectedRowsByReason = new EnumMap<>(RejectReason.class);
+
+    private final Timer digestTimer;
+
+    private final Timer parseTimer;
+
+    private final Timer validateTimer;
+
+    private final Timer insertTimer;
+
+    private final Timer copyTimer;
+
+    private final DistributionSummary importBytes;
+
+    private final DistributionSummary importThroughput;
+
+    public BankStatementMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        acceptedRows = importRowsCounter("accepted");
+        duplicateRows = importRowsCounter("duplicate");
+        rejectedRows = importRowsCounter("rejected");
+        for (RejectReason reason : RejectReason.values()) {
+            rejectedRowsByReason.put(reason, Counter.builder(IMPORT_REJECTED_ROWS)
+                    .description("Import rows left out, by reason")
+                    .tag("reason", reason.getTagValue())
+                    .register(meterRegistry));
+        }
+        digestTimer = importStageTimer("digest");
+        parseTimer = importStageTimer("parse");
+        validateTimer = importStageTimer("validate");
+        insertTimer = importStageTimer("insert");
+        copyTimer = importStageTimer("copy");
+        importBytes = DistributionSummary.builder(IMPORT_BYTES)
+                .description("Size of imported csv files after decompression")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        importThroughput = DistributionSummary.builder(IMPORT_THROUGHPUT)
+                .description("Parsed rows per second of finished imports")
+                .baseUnit("rows")
+                .register(meterRegistry);
+    }
+
+    public byte[] timeDigest(Supplier<byte[]> digest) {
+        return digestTimer.record(digest);
+    }
+
+    public void recordParse(long parseNanos) {
+        parseTimer.record(parseNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs on a parser thread.
+     */
+    public <T> T timeValidation(Supplier<T> validation) {
+        return validateTimer.record(validation);
+    }
+
+    public <T> T timeStore(boolean bulkImport, Supplier<T> store) {
+        return (bulkImport ? copyTimer : insertTimer).record(store);
+    }
+
+    /**
+     * @param rejectCounts rows of the chunk skipped by the parser or by validation
+     */
+    public void recordChunk(long acceptedCount, long duplicateCount, RejectCounts rejectCounts) {
+        acceptedRows.increment(acceptedCount);
+        duplicateRows.increment(duplicateCount);
+        rejectedRows.increment(rejectCounts.getTotal());
+        rejectedRowsByReason.forEach((reason, counter) -> counter.increment(rejectCounts.get(reason)));
+    }
+
+    /**
+     * Counts the rows of a file skipped because it was imported before.
+     */
+    public void recordDuplicates(long duplicateCount) {
+        duplicateRows.increment(duplicateCount);
+    }
+
+    /**
+     * @param size size of the upload in bytes, compressed when the upload is
+     */
+    public void recordImport(ImportStatistics statistics, long size, boolean bulkImport) {
+        Timer.builder(IMPORT_DURATION)
+                .description("Duration of whole imports")
+                .tag("mode", bulkImport ? "copy" : "insert")
+                .register(meterRegistry)
+                .record(statistics.getElapsedMillis(), TimeUnit.MILLISECONDS);
+        importBytes.record(size);
+        importThroughput.record(statistics.getRowsPerSecond());
+    }
+
+    public void recordExport(ExportFormat format, Compression compression, long rowCount, long byteCount,
+                             long elapsedNanos) {
+        String formatTag = format.name().toLowerCase(Locale.ROOT);
+        String compressionTag = compression.name().toLowerCase(Locale.ROOT);
+        Timer.builder(EXPORT_DURATION)
+                .description("Duration of exports")
+                .tags("format", formatTag, "compression", compressionTag)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Counter.builder(EXPORT_ROWS)
+                .description("Exported rows")
+                .tag("format", formatTag)
+                .register(meterRegistry)
+                .increment(rowCount);
+        Counter.builder(EXPORT_BYTES)
+                .description("Bytes streamed to export downloads, after compression")
+                .baseUnit("bytes")
+                .tags("format", formatTag, "compression", compressionTag)
+                .register(meterRegistry)
+                .increment(byteCount);
+    }
+
+    private Counter importRowsCounter(String outcome) {
+        return Counter.builder(IMPORT_ROWS)
+                .description("Import rows by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Timer importStageTimer(String stage) {
+        return Timer.builder(IMPORT_STAGE)
+                .description("Time spent in each import stage, per chunk or per file for the digest")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+}
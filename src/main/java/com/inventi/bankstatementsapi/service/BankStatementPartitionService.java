@@ -0,0 +1,101 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.config.PartitionProperties;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.repository.BankStatementPartitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a monthly partition of {@code bank_statement} in place for every stored row and for the months ahead, and
+ * detaches and archives partitions past the configured retention.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BankStatementPartitionService {
+
+    private final BankStatementPartitionRepository bankStatementPartitionRepository;
+
+    private final PartitionProperties partitionProperties;
+
+    private final AccountBalanceCache accountBalanceCache;
+
+    /**
+     * Months known to have a partition, a partition detached by another instance is created again on demand only after
+     * a restart.
+     */
+    private final Set<YearMonth> partitions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates missing partitions for the months of the bank statements, must be called before they are inserted and
+     * outside of the inserting transaction.
+     */
+    public void ensurePartitions(List<BankStatement> bankStatements) {
+        Set<YearMonth> months = new TreeSet<>();
+        for (BankStatement bankStatement : bankStatements) {
+            YearMonth month = YearMonth.from(bankStatement.getOperationDate());
+            if (!partitions.contains(month)) {
+                months.add(month);
+            }
+        }
+        months.forEach(this::ensurePartition);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${bank-statements.partitions.maintenance-cron:0 0 1 * * *}")
+    public void maintainPartitions() {
+        partitions.addAll(bankStatementPartitionRepository.findPartitions());
+        YearMonth currentMonth = YearMonth.now();
+        for (int i = 0; i <= partitionProperties.getMonthsAhead(); i++) {
+            ensurePartition(currentMonth.plusMonths(i));
+        }
+        if (partitionProperties.getRetention() != null) {
+            detachPartitionsBefore(YearMonth.from(currentMonth.atDay(1).minus(partitionProperties.getRetention())));
+        }
+    }
+
+    /**
+     * Detaches and archives every partition of a month before {@code month}. Archived tables keep their rows for
+     * dumping or dropping, while the daily balance rollup drops their days, so balances cover retained rows only.
+     *
+     * @return names of the archived tables
+     */
+    public List<String> detachPartitionsBefore(YearMonth month) {
+        List<String> archivedPartitions = new ArrayList<>();
+        for (YearMonth partition : bankStatementPartitionRepository.findPartitions()) {
+            if (partition.isBefore(month)) {
+                bankStatementPartitionRepository.detach(partition);
+                partitions.remove(partition);
+                String archivedPartition = bankStatementPartitionRepository.archive(partition);
+                if (archivedPartition != null) {
+                    archivedPartitions.add(archivedPartition);
+                }
+            }
+        }
+        if (!archivedPartitions.isEmpty()) {
+            accountBalanceCache.invalidateAll();
+            log.info("Archived bank statement partitions {}", archivedPartitions);
+        }
+        return archivedPartitions;
+    }
+
+    private void ensurePartition(YearMonth month) {
+        if (partitions.contains(month)) {
+            return;
+        }
+        bankStatementPartitionRepository.create(month);
+        partitions.add(month);
+    }
+}
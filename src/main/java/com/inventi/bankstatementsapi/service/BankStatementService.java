@@ -1,113 +1,354 @@
 package com.inventi.bankstatementsapi.service;
 
 
-import com.inventi.bankstatementsapi.csv.BankStatementExportCsvBean;
-import com.inventi.bankstatementsapi.csv.BankStatementImportCsvBean;
-import com.inventi.bankstatementsapi.dto.AccountBalanceDto;
+import com.inventi.bankstatementsapi.config.ExportProperties;
+import com.inventi.bankstatementsapi.config.ImportProperties;
+import com.inventi.bankstatementsapi.csv.Compression;
+import com.inventi.bankstatementsapi.csv.RejectCounts;
+import com.inventi.bankstatementsapi.csv.RejectReason;
+import com.inventi.bankstatementsapi.csv.RejectedRows;
+import com.inventi.bankstatementsapi.csv.RejectedRowsCsvWriter;
 import com.inventi.bankstatementsapi.dto.BankStatementDto;
+import com.inventi.bankstatementsapi.dto.BankStatementPageDto;
+import com.inventi.bankstatementsapi.dto.ExportFormat;
+import com.inventi.bankstatementsapi.dto.ImportResultMode;
+import com.inventi.bankstatementsapi.dto.ImportSummaryDto;
 import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.exception.CsvImportFailedException;
 import com.inventi.bankstatementsapi.mapper.BankStatementMapper;
+import com.inventi.bankstatementsapi.repository.BankStatementFilter;
+import com.inventi.bankstatementsapi.repository.BankStatementImportFileRepository;
+import com.inventi.bankstatementsapi.repository.BankStatementKey;
 import com.inventi.bankstatementsapi.repository.BankStatementRepository;
+import com.inventi.bankstatementsapi.service.CsvImportPipeline.ParsedChunk;
+import com.inventi.bankstatementsapi.utils.HashUtils;
+import com.inventi.bankstatementsapi.utils.MoneyUtils;
+import com.inventi.bankstatementsapi.utils.PageTokenUtils;
+import com.inventi.bankstatementsapi.utils.SpoolUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.collections4.IterableUtils;
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CollectionUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.PrintWriter;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static com.inventi.bankstatementsapi.utils.DateUtils.getFrom;
 import static com.inventi.bankstatementsapi.utils.DateUtils.getTo;
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.summingDouble;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class BankStatementService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final CsvService csvService;
 
+    private final ArrowService arrowService;
+
+    private final CsvImportPipeline csvImportPipeline;
+
     private final BankStatementRepository bankStatementRepository;
 
+    private final BankStatementChunkWriter bankStatementChunkWriter;
+
+    private final ImportProperties importProperties;
+
+    private final ExportProperties exportProperties;
+
+    private final EntityManager entityManager;
+
+    private final BankStatementImportFileRepository bankStatementImportFileRepository;
+
+    private final BankStatementPartitionService bankStatementPartitionService;
+
+    private final BankStatementMetrics bankStatementMetrics;
+
+    private final RejectedRowLogger rejectedRowLogger;
+
     private final BankStatementMapper bankStatementMapper = new BankStatementMapper();
 
-    public List<BankStatementDto> importFromCsv(MultipartFile file) {
-        List<BankStatementImportCsvBean> parsedBankStatements =
-                csvService.readBeansFromCsv(file, BankStatementImportCsvBean.class);
-        List<BankStatement> validBankStatements = getValidBankStatements(parsedBankStatements);
-        if (CollectionUtils.isNotEmpty(validBankStatements)) {
-            Iterable<BankStatement> savedBankStatements = bankStatementRepository.saveAll(validBankStatements);
-            return IterableUtils.toList(savedBankStatements).stream()
-                    .map(bankStatementMapper::toDto)
-                    .toList();
+    /**
+     * Imports the upload and reports the rows it inserted, or only row counts in summary mode. Uploads whose csv is
+     * above the copy threshold once decompressed are loaded with PostgreSQL COPY and always reported as a summary.
+     */
+    public ImportResult importFromCsv(MultipartFile file, Compression compression, ImportResultMode resultMode) {
+        csvService.validateContentType(file, compression);
+        String fileName = file.getOriginalFilename();
+        return importUpload(file, compression, (source, size) -> {
+            if (resultMode == ImportResultMode.ROWS && !isBulkImport(size)) {
+                return new ImportResult(importRows(source, fileName, size), null);
+            }
+            ImportStatistics statistics = new ImportStatistics();
+            importBankStatements(source, fileName, size, statistics, null);
+            return new ImportResult(null, statistics.toSummary());
+        });
+    }
+
+    private List<BankStatementDto> importRows(InputStreamSource source, String fileName, long size) {
+        List<BankStatementDto> importedBankStatements = new ArrayList<>();
+        importBankStatements(source, fileName, size, false, new ImportStatistics(), null,
+                insertedBankStatements -> insertedBankStatements.stream()
+                        .map(bankStatementMapper::toDto)
+                        .forEach(importedBankStatements::add));
+        return importedBankStatements;
+    }
+
+    /**
+     * Hands the csv of the upload to {@code importer} along with its size. Compressed uploads are decompressed into the
+     * spool directory first, so the size compared with the copy threshold is the size of the csv rather than of the
+     * upload. Uncompressed uploads are moved there when they are memory-mapped and read in place otherwise.
+     */
+    private <T> T importUpload(MultipartFile file, Compression compression,
+                               BiFunction<InputStreamSource, Long, T> importer) {
+        if (compression == Compression.NONE && !importProperties.isMemoryMapped()) {
+            return importer.apply(file, file.getSize());
+        }
+        Path spoolFile = compression == Compression.NONE
+                ? SpoolUtils.spool(file, importProperties.getSpoolDirectory())
+                : SpoolUtils.spool(compression.decompress(file), importProperties.getSpoolDirectory());
+        try {
+            return importer.apply(new FileSystemResource(spoolFile), spoolFile.toFile().length());
+        } finally {
+            SpoolUtils.delete(spoolFile);
         }
-        return Collections.emptyList();
     }
 
-    public void exportToCsv(LocalDate from, LocalDate to, PrintWriter writer) {
-        List<BankStatement> bankStatements = bankStatementRepository.findAllByOperationDateIsBetween(getFrom(from), getTo(to));
-        List<BankStatementExportCsvBean> bankStatementExportCsvBeans = bankStatements.stream()
-                .map(bankStatementMapper::toExportCsvBean)
-                .toList();
-        csvService.writeBeansToCsv(bankStatementExportCsvBeans, writer);
+    /**
+     * Imports an already validated and decompressed csv source, recording progress in {@code statistics} after every stored chunk.
+     * A file imported completely before is not parsed again, all of its rows are reported as duplicates.
+     *
+     * @param size          size of the decompressed csv in bytes, deciding between COPY and JPA inserts
+     * @param rejectsWriter receives the row numbers of every rejected row, {@code null} when they are not kept
+     */
+    public void importBankStatements(InputStreamSource source, String fileName, long size, ImportStatistics statistics,
+                                     RejectedRowsCsvWriter rejectsWriter) {
+        importBankStatements(source, fileName, size, isBulkImport(size), statistics, rejectsWriter,
+                insertedBankStatements -> {
+                });
     }
 
-    public List<AccountBalanceDto> getAccountBalances(String accountNumber, LocalDate from, LocalDate to) {
-        LocalDateTime fromDateTime = getFrom(from);
-        LocalDateTime toDateTime = getTo(to);
-        List<BankStatement> sentBankStatements = getSentBankStatements(accountNumber, fromDateTime, toDateTime);
-        List<BankStatement> receivedBankStatements = getReceivedBankStatements(accountNumber, fromDateTime, toDateTime);
-        List<BankStatement> allBankStatements = Stream.concat(sentBankStatements.stream(), receivedBankStatements.stream())
-                .toList();
-        return getAccountBalanceDtos(allBankStatements);
+    /**
+     * @param bulkImport            whether chunks are stored with COPY instead of JPA inserts
+     * @param insertedChunkConsumer receives the rows of every chunk inserted by this import, in file order
+     */
+    private void importBankStatements(InputStreamSource source, String fileName, long size, boolean bulkImport,
+                                      ImportStatistics statistics, RejectedRowsCsvWriter rejectsWriter,
+                                      Consumer<List<BankStatement>> insertedChunkConsumer) {
+        byte[] digest = digest(source);
+        if (isAlreadyImported(digest, fileName, statistics)) {
+            return;
+        }
+        try {
+            csvImportPipeline.importBankStatements(source, importProperties.getChunkSize(), this::validate,
+                    parsedChunk -> {
+                        ValidatedChunk validatedChunk = parsedChunk.result();
+                        List<BankStatement> validBankStatements = validatedChunk.validBankStatements();
+                        List<BankStatement> insertedBankStatements = storeBankStatements(validBankStatements, bulkImport);
+                        statistics.addRejected(validatedChunk.rejectedCount() + parsedChunk.skippedCount());
+                        statistics.addDuplicates(validBankStatements.size() - insertedBankStatements.size());
+                        statistics.addAccepted(insertedBankStatements);
+                        recordChunk(parsedChunk, insertedBankStatements.size());
+                        reportRejectedRows(fileName,
+                                RejectedRows.merge(parsedChunk.skippedRows(), validatedChunk.rejectedRows()),
+                                rejectsWriter);
+                        insertedChunkConsumer.accept(insertedBankStatements);
+                    });
+        } finally {
+            rejectedRowLogger.flush();
+        }
+        bankStatementImportFileRepository.save(digest, fileName, statistics.getStoredCount());
+        finishImport(statistics, size, bulkImport);
     }
 
-    private List<BankStatement> getReceivedBankStatements(String accountNumber, LocalDateTime fromDateTime, LocalDateTime toDateTime) {
-        return bankStatementRepository.findAllByBeneficiaryAndOperationDateIsBetween(
-                accountNumber, fromDateTime, toDateTime);
+    private boolean isBulkImport(long size) {
+        return size > importProperties.getCopyThreshold().toBytes();
+    }
+
+    /**
+     * Streams rows from a database cursor and writes each one as soon as it is fetched, detaching it from the
+     * persistence context afterwards so memory use does not grow with the exported range. Rows are compressed on the
+     * fly and the stream is closed once the compressed output is finished.
+     */
+    @Transactional(readOnly = true)
+    public void export(LocalDate from, LocalDate to, ExportFormat format, Compression compression,
+                       OutputStream outputStream) throws IOException {
+        long startTime = System.nanoTime();
+        int bufferSize = (int) exportProperties.getBufferSize().toBytes();
+        CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+        MutableLong rowCount = new MutableLong();
+        try (OutputStream compressedStream = compression.compress(countingStream,
+                exportProperties.getLevel(compression), bufferSize);
+             Stream<BankStatement> bankStatements =
+                     bankStatementRepository.streamAllByOperationDateIsBetween(getFrom(from), getTo(to))) {
+            Stream<BankStatement> detachedBankStatements = bankStatements.map(bankStatement -> {
+                rowCount.increment();
+                return detach(bankStatement);
+            });
+            switch (format) {
+                case CSV -> csvService.writeBankStatementsToCsv(detachedBankStatements, compressedStream, bufferSize);
+                case ARROW -> arrowService.writeBankStatementsToArrow(detachedBankStatements, compressedStream,
+                        exportProperties.getArrowBatchSize());
+            }
+        }
+        bankStatementMetrics.recordExport(format, compression, rowCount.longValue(), countingStream.getCount(),
+                System.nanoTime() - startTime);
     }
 
-    private List<BankStatement> getSentBankStatements(String accountNumber, LocalDateTime fromDateTime, LocalDateTime toDateTime) {
-        return bankStatementRepository.findAllByAccountNumberAndOperationDateIsBetween(
-                        accountNumber, fromDateTime, toDateTime)
-                .stream()
-                .map(bankStatementMapper::toEntityWithNegativeAmount)
-                .toList();
+    /**
+     * @param pageToken continuation token of the previous page, {@code null} for the first page
+     */
+    public BankStatementPageDto getBankStatements(BankStatementFilter filter, String pageToken, int pageSize) {
+        BankStatementKey after = pageToken == null ? null : PageTokenUtils.decode(pageToken);
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        // one extra row tells whether a following page exists
+        List<BankStatement> bankStatements = bankStatementRepository.findPage(filter, after, limit + 1);
+        String nextPageToken = null;
+        if (bankStatements.size() > limit) {
+            bankStatements = bankStatements.subList(0, limit);
+            BankStatement last = bankStatements.get(limit - 1);
+            nextPageToken = PageTokenUtils.encode(new BankStatementKey(last.getOperationDate(), last.getId()));
+        }
+        return new BankStatementPageDto(bankStatements.stream().map(bankStatementMapper::toDto).toList(), nextPageToken);
     }
 
-    private List<AccountBalanceDto> getAccountBalanceDtos(List<BankStatement> bankStatements) {
-        Map<String, Double> amountsMappedByCurrency = getAmountsMappedByCurrency(bankStatements);
-        return amountsMappedByCurrency.entrySet().stream()
-                .map(entry -> new AccountBalanceDto(entry.getKey(), entry.getValue()))
-                .toList();
+    private List<BankStatement> storeBankStatements(List<BankStatement> validBankStatements, boolean bulkImport) {
+        if (CollectionUtils.isEmpty(validBankStatements)) {
+            return Collections.emptyList();
+        }
+        bankStatementPartitionService.ensurePartitions(validBankStatements);
+        return bankStatementMetrics.timeStore(bulkImport, () -> bulkImport
+                ? bankStatementChunkWriter.copy(validBankStatements)
+                : bankStatementChunkWriter.save(validBankStatements));
     }
 
-    private Map<String, Double> getAmountsMappedByCurrency(List<BankStatement> bankStatements) {
-        return bankStatements.stream()
-                .map(bankStatement -> Map.entry(bankStatement.getCurrency(), bankStatement.getAmount()))
-                .collect(groupingBy(Map.Entry::getKey, summingDouble(Map.Entry::getValue)));
+    private void reportRejectedRows(String fileName, RejectedRows rejectedRows, RejectedRowsCsvWriter rejectsWriter) {
+        rejectedRowLogger.log(fileName, rejectedRows);
+        if (rejectsWriter == null) {
+            return;
+        }
+        try {
+            rejectsWriter.write(rejectedRows);
+        } catch (IOException e) {
+            log.error("Failed to write rejected rows of file {}: ", fileName, e);
+            throw new CsvImportFailedException(e.getMessage(), e);
+        }
     }
 
-    private List<BankStatement> getValidBankStatements(List<BankStatementImportCsvBean> bankStatementImportCsvBeans) {
-        return bankStatementImportCsvBeans.stream()
-                .map(bankStatementMapper::toEntity)
-                .filter(this::isBankStatementValid)
-                .toList();
+    private void recordChunk(ParsedChunk<ValidatedChunk> parsedChunk, int insertedCount) {
+        ValidatedChunk validatedChunk = parsedChunk.result();
+        RejectCounts rejectCounts = new RejectCounts();
+        rejectCounts.addAll(parsedChunk.skippedCounts());
+        rejectCounts.addAll(validatedChunk.rejectCounts());
+        bankStatementMetrics.recordParse(parsedChunk.parseNanos());
+        bankStatementMetrics.recordChunk(insertedCount, validatedChunk.validBankStatements().size() - insertedCount,
+                rejectCounts);
     }
 
-    private boolean isBankStatementValid(BankStatement bankStatement) {
-        if (!bankStatement.isValid()) {
-            log.info("Skipping invalid bank statement: {}", bankStatement);
+    private boolean isAlreadyImported(byte[] digest, String fileName, ImportStatistics statistics) {
+        OptionalLong storedRowCount = bankStatementImportFileRepository.findRowCount(digest);
+        if (storedRowCount.isEmpty()) {
             return false;
         }
+        log.info("Skipping file {} because it was already imported", fileName);
+        statistics.addDuplicates(storedRowCount.getAsLong());
+        bankStatementMetrics.recordDuplicates(storedRowCount.getAsLong());
+        statistics.finish();
         return true;
     }
+
+    private byte[] digest(InputStreamSource source) {
+        return bankStatementMetrics.timeDigest(() -> {
+            try (InputStream inputStream = source.getInputStream()) {
+                return HashUtils.digest(inputStream);
+            } catch (IOException e) {
+                log.error("Failed to read bank statements from file: ", e);
+                throw new CsvImportFailedException(e.getMessage(), e);
+            }
+        });
+    }
+
+    private BankStatement detach(BankStatement bankStatement) {
+        entityManager.detach(bankStatement);
+        return bankStatement;
+    }
+
+    private void finishImport(ImportStatistics statistics, long size, boolean bulkImport) {
+        statistics.finish();
+        bankStatementMetrics.recordImport(statistics, size, bulkImport);
+        log.info("Imported {} bank statements, rejected {} rows and skipped {} duplicates in {} ms ({} rows/s)",
+                statistics.getAcceptedCount(), statistics.getRejectedCount(), statistics.getDuplicateCount(),
+                statistics.getElapsedMillis(), statistics.getRowsPerSecond());
+    }
+
+    /**
+     * Runs on a parser thread of the import pipeline.
+     *
+     * @param rowNumbers row number of every parsed bank statement in the file
+     */
+    private ValidatedChunk validate(List<BankStatement> parsedBankStatements, long[] rowNumbers) {
+        return bankStatementMetrics.timeValidation(() -> {
+            RejectCounts rejectCounts = new RejectCounts();
+            RejectedRows rejectedRows = new RejectedRows();
+            List<BankStatement> validBankStatements = new ArrayList<>(parsedBankStatements.size());
+            for (int i = 0; i < parsedBankStatements.size(); i++) {
+                BankStatement bankStatement = parsedBankStatements.get(i);
+                RejectReason reason = getRejectReason(bankStatement);
+                if (reason == null) {
+                    validBankStatements.add(bankStatement);
+                } else {
+                    rejectCounts.add(reason);
+                    rejectedRows.add(rowNumbers[i], reason);
+                }
+            }
+            return new ValidatedChunk(validBankStatements, rejectCounts, rejectedRows);
+        });
+    }
+
+    /**
+     * @return reason to reject the bank statement or {@code null} when it is valid
+     */
+    private RejectReason getRejectReason(BankStatement bankStatement) {
+        if (bankStatement.isValid()) {
+            return null;
+        }
+        return MoneyUtils.isValidAmount(bankStatement.getAmount())
+                ? RejectReason.MISSING_VALUE
+                : RejectReason.INVALID_AMOUNT;
+    }
+
+    private record ValidatedChunk(List<BankStatement> validBankStatements,
+                                  RejectCounts rejectCounts,
+                                  RejectedRows rejectedRows) {
+
+        long rejectedCount() {
+            return rejectCounts.getTotal();
+        }
+    }
+
+    /**
+     * Outcome of a synchronous import, holding either the inserted rows or the summary.
+     *
+     * @param bankStatements rows inserted by the import, rows stored by an earlier one are left out
+     */
+    public record ImportResult(List<BankStatementDto> bankStatements,
+                               ImportSummaryDto summary) {
+    }
 }
@@ -0,0 +1,195 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.config.ImportProperties;
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+import com.inventi.bankstatementsapi.csv.BankStatementCsvReader;
+import com.inventi.bankstatementsapi.csv.BankStatementCsvSplitter;
+import com.inventi.bankstatementsapi.csv.RejectCounts;
+import com.inventi.bankstatementsapi.csv.RejectedRows;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.exception.CsvImportFailedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Imports bank statements in three stages: the calling thread cuts the file into segments of whole records, a pool
+ * of parser threads parses and processes segments concurrently, and the calling thread consumes the processed chunks
+ * in file order. At most {@link ImportProperties#getChunksInFlight()} chunks are parsed ahead of the consumer, so
+ * memory stays bounded when persistence is the slower stage.
+ * <p>
+ * Sources backed by a local file are memory-mapped, their segments are slices of the mapping parsed in place, so rows
+ * are read from the page cache without being copied through stream buffers. Other sources are streamed.
+ */
+@Service
+@Slf4j
+public class CsvImportPipeline {
+
+    /**
+     * Row 1 is the header, every segment holds exactly {@code chunkSize} records but the last.
+     */
+    private static final long FIRST_ROW_NUMBER = 2;
+
+    private final ExecutorService parserExecutor;
+
+    private final int chunksInFlight;
+
+    private final boolean memoryMapped;
+
+    public CsvImportPipeline(ImportProperties importProperties) {
+        this.parserExecutor = Executors.newFixedThreadPool(importProperties.getParserThreads(),
+                new CustomizableThreadFactory("csv-parser-"));
+        this.chunksInFlight = importProperties.getChunksInFlight();
+        this.memoryMapped = importProperties.isMemoryMapped();
+    }
+
+    /**
+     * @param source         uploaded or spooled csv file
+     * @param chunkProcessor runs on a parser thread for every parsed chunk of at most {@code chunkSize} rows, along
+     *                       with the row number of each of them in the file
+     * @param chunkConsumer  runs on the calling thread for every processed chunk, in file order
+     */
+    public <T> void importBankStatements(InputStreamSource source, int chunkSize,
+                                         BiFunction<List<BankStatement>, long[], T> chunkProcessor,
+                                         Consumer<ParsedChunk<T>> chunkConsumer) {
+        Objects.requireNonNull(source, ErrorMessages.FILE_CANNOT_BE_NULL);
+        try {
+            Path file = getMappableFile(source);
+            if (file != null) {
+                // the mapping outlives the channel and is released once its segments are no longer referenced
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    ByteBuffer mappedFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    importSegments(new BankStatementCsvSplitter(mappedFile), chunkSize, chunkProcessor, chunkConsumer);
+                }
+            } else {
+                try (InputStream inputStream = source.getInputStream()) {
+                    importSegments(new BankStatementCsvSplitter(inputStream), chunkSize, chunkProcessor, chunkConsumer);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to read bank statements from file: ", e);
+            throw new CsvImportFailedException(e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parserExecutor.shutdownNow();
+    }
+
+    /**
+     * @return local file of the source or {@code null} when it has to be streamed, files of 2 GB and more do not fit
+     * a single mapping
+     */
+    private Path getMappableFile(InputStreamSource source) throws IOException {
+        if (memoryMapped && source instanceof Resource resource && resource.isFile()
+                && resource.contentLength() <= Integer.MAX_VALUE) {
+            return resource.getFile().toPath();
+        }
+        return null;
+    }
+
+    private <T> void importSegments(BankStatementCsvSplitter splitter, int chunkSize,
+                                    BiFunction<List<BankStatement>, long[], T> chunkProcessor,
+                                    Consumer<ParsedChunk<T>> chunkConsumer) throws IOException {
+        Deque<Future<ParsedChunk<T>>> pendingChunks = new ArrayDeque<>();
+        try {
+            BankStatementCsvReader headerReader = readHeader(splitter);
+            long firstRowNumber = FIRST_ROW_NUMBER;
+            ByteBuffer segment;
+            while ((segment = splitter.nextSegment(chunkSize)) != null) {
+                BankStatementCsvReader reader = headerReader.forSegment(segment, firstRowNumber);
+                firstRowNumber += chunkSize;
+                pendingChunks.add(parserExecutor.submit(() -> processSegment(reader, chunkProcessor)));
+                if (pendingChunks.size() >= chunksInFlight) {
+                    chunkConsumer.accept(await(pendingChunks.poll()));
+                }
+            }
+            while (!pendingChunks.isEmpty()) {
+                chunkConsumer.accept(await(pendingChunks.poll()));
+            }
+        } finally {
+            pendingChunks.forEach(pendingChunk -> pendingChunk.cancel(true));
+        }
+    }
+
+    private BankStatementCsvReader readHeader(BankStatementCsvSplitter splitter) throws IOException {
+        ByteBuffer header = splitter.nextSegment(1);
+        BankStatementCsvReader headerReader = new BankStatementCsvReader(
+                header == null ? ByteBuffer.allocate(0) : header);
+        headerReader.readHeader();
+        return headerReader;
+    }
+
+    private <T> ParsedChunk<T> processSegment(BankStatementCsvReader reader,
+                                              BiFunction<List<BankStatement>, long[], T> chunkProcessor)
+            throws IOException {
+        long parseStart = System.nanoTime();
+        List<BankStatement> chunk = new ArrayList<>();
+        long[] rowNumbers = new long[64];
+        BankStatement bankStatement;
+        while ((bankStatement = reader.next()) != null) {
+            if (chunk.size() == rowNumbers.length) {
+                rowNumbers = Arrays.copyOf(rowNumbers, chunk.size() * 2);
+            }
+            rowNumbers[chunk.size()] = reader.getRowNumber();
+            chunk.add(bankStatement);
+        }
+        long parseNanos = System.nanoTime() - parseStart;
+        return new ParsedChunk<>(chunkProcessor.apply(chunk, rowNumbers), reader.getSkippedCounts(),
+                reader.getSkippedRows(), parseNanos);
+    }
+
+    private <T> ParsedChunk<T> await(Future<ParsedChunk<T>> pendingChunk) {
+        try {
+            return pendingChunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CsvImportFailedException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            log.error("Failed to read bank statements from file: ", e.getCause());
+            throw new CsvImportFailedException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * @param result        output of the chunk processor
+     * @param skippedCounts rows of the chunk skipped because they could not be converted to a bank statement
+     * @param skippedRows   row numbers of the skipped rows
+     * @param parseNanos    time spent parsing the chunk, without the chunk processor
+     */
+    public record ParsedChunk<T>(T result,
+                                 RejectCounts skippedCounts,
+                                 RejectedRows skippedRows,
+                                 long parseNanos) {
+
+        public long skippedCount() {
+            return skippedCounts.getTotal();
+        }
+    }
+}
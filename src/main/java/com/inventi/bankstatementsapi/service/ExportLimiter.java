@@ -0,0 +1,94 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.config.ExportProperties;
+import com.inventi.bankstatementsapi.exception.ExportRejectedException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the exports holding a database connection for their whole download. Without a bound, slow downloads take
+ * every pooled connection and balance requests time out waiting for one, with virtual threads even sooner since no
+ * request thread pool limits them first. Waiting exports park their request thread, which on platform threads is a
+ * Tomcat worker taken from other requests, so they wait at most {@link ExportProperties#getQueueTimeout()} and the
+ * default queue is sized from the worker pool.
+ */
+@Component
+public class ExportLimiter {
+
+    /**
+     * Queued exports on virtual threads, where a parked request does not hold a worker thread.
+     */
+    private static final int VIRTUAL_THREADS_MAX_QUEUED_EXPORTS = 100;
+
+    /**
+     * Running and queued exports together may hold at most this share of the Tomcat worker threads.
+     */
+    private static final int WORKER_THREADS_PER_EXPORT_SLOT = 4;
+
+    private final Semaphore admittedExports;
+
+    private final Semaphore runningExports;
+
+    private final Duration queueTimeout;
+
+    public ExportLimiter(ExportProperties exportProperties, DataSource dataSource, ServerProperties serverProperties,
+                         Environment environment) {
+        int maxConcurrentExports = exportProperties.getMaxConcurrentExports();
+        if (dataSource instanceof HikariDataSource hikariDataSource
+                && maxConcurrentExports >= hikariDataSource.getMaximumPoolSize()) {
+            throw new IllegalStateException("bank-statements.export.max-concurrent-exports (" + maxConcurrentExports
+                    + ") must be below spring.datasource.hikari.maximum-pool-size ("
+                    + hikariDataSource.getMaximumPoolSize() + ")");
+        }
+        int maxQueuedExports = exportProperties.getMaxQueuedExports() != null
+                ? exportProperties.getMaxQueuedExports()
+                : getDefaultMaxQueuedExports(maxConcurrentExports, serverProperties, environment);
+        this.admittedExports = new Semaphore(maxConcurrentExports + maxQueuedExports);
+        this.runningExports = new Semaphore(maxConcurrentExports, true);
+        this.queueTimeout = exportProperties.getQueueTimeout();
+    }
+
+    private static int getDefaultMaxQueuedExports(int maxConcurrentExports, ServerProperties serverProperties,
+                                                  Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return VIRTUAL_THREADS_MAX_QUEUED_EXPORTS;
+        }
+        int workerThreads = serverProperties.getTomcat().getThreads().getMax();
+        return Math.max(0, workerThreads / WORKER_THREADS_PER_EXPORT_SLOT - maxConcurrentExports);
+    }
+
+    /**
+     * Waits for an export slot, every successful call must be followed by {@link #release()}.
+     *
+     * @throws ExportRejectedException when every export slot and queue place is taken, or no slot frees up within the
+     *                                 queue timeout
+     */
+    public void acquire() {
+        if (!admittedExports.tryAcquire()) {
+            throw new ExportRejectedException();
+        }
+        try {
+            if (!runningExports.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                admittedExports.release();
+                throw new ExportRejectedException();
+            }
+        } catch (InterruptedException e) {
+            admittedExports.release();
+            Thread.currentThread().interrupt();
+            throw new ExportRejectedException();
+        }
+    }
+
+    public void release() {
+        runningExports.release();
+        admittedExports.release();
+    }
+}
@@ -0,0 +1,99 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.csv.Compression;
+import com.inventi.bankstatementsapi.dto.ImportJobDto;
+import com.inventi.bankstatementsapi.dto.ImportJobStatus;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Asynchronous import of a spooled upload, read by polling requests while a job thread updates it.
+ */
+@Getter
+class ImportJob {
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final String fileName;
+
+    private final Path spoolFile;
+
+    private final Compression compression;
+
+    /**
+     * Whether row numbers of rejected rows are written to {@link #rejectsFile}.
+     */
+    private final boolean keepingRejectedRows;
+
+    private volatile Path rejectsFile;
+
+    /**
+     * Created once the job leaves the queue, so throughput is measured from the start of processing.
+     */
+    private volatile ImportStatistics statistics;
+
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+
+    private volatile String error;
+
+    private volatile Instant finishedAt;
+
+    ImportJob(String fileName, Path spoolFile, Compression compression, boolean keepingRejectedRows) {
+        this.fileName = fileName;
+        this.spoolFile = spoolFile;
+        this.compression = compression;
+        this.keepingRejectedRows = keepingRejectedRows;
+    }
+
+    void setRejectsFile(Path rejectsFile) {
+        this.rejectsFile = rejectsFile;
+    }
+
+    ImportStatistics start() {
+        statistics = new ImportStatistics();
+        status = ImportJobStatus.RUNNING;
+        return statistics;
+    }
+
+    void complete() {
+        finish(ImportJobStatus.COMPLETED);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(ImportJobStatus.FAILED);
+    }
+
+    boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    ImportJobDto toDto() {
+        ImportJobDto.ImportJobDtoBuilder dto = ImportJobDto.builder()
+                .jobId(id)
+                .fileName(fileName)
+                .status(status)
+                .error(error);
+        ImportStatistics currentStatistics = statistics;
+        if (currentStatistics != null) {
+            dto.parsedCount(currentStatistics.getParsedCount())
+                    .insertedCount(currentStatistics.getAcceptedCount())
+                    .rejectedCount(currentStatistics.getRejectedCount())
+                    .duplicateCount(currentStatistics.getDuplicateCount())
+                    .elapsedMillis(currentStatistics.getElapsedMillis())
+                    .rowsPerSecond(currentStatistics.getRowsPerSecond());
+        }
+        return dto.build();
+    }
+
+    private void finish(ImportJobStatus status) {
+        if (statistics != null) {
+            statistics.finish();
+        }
+        this.status = status;
+        finishedAt = Instant.now();
+    }
+}
@@ -0,0 +1,176 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.config.ImportProperties;
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+import com.inventi.bankstatementsapi.csv.Compression;
+import com.inventi.bankstatementsapi.csv.RejectedRowsCsvWriter;
+import com.inventi.bankstatementsapi.dto.ImportJobDto;
+import com.inventi.bankstatementsapi.exception.ImportJobNotFoundException;
+import com.inventi.bankstatementsapi.exception.ImportJobRejectedException;
+import com.inventi.bankstatementsapi.exception.RejectedRowsNotAvailableException;
+import com.inventi.bankstatementsapi.utils.SpoolUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs csv imports in the background: the upload is spooled to local disk and processed by a bounded pool, so a
+ * burst of large imports queues up instead of taking every database connection away from balance queries.
+ */
+@Service
+@Slf4j
+public class ImportJobService {
+
+    private final CsvService csvService;
+
+    private final BankStatementService bankStatementService;
+
+    private final ImportProperties importProperties;
+
+    private final ThreadPoolExecutor jobExecutor;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(CsvService csvService, BankStatementService bankStatementService,
+                            ImportProperties importProperties) {
+        this.csvService = csvService;
+        this.bankStatementService = bankStatementService;
+        this.importProperties = importProperties;
+        int maxConcurrentJobs = importProperties.getMaxConcurrentJobs();
+        this.jobExecutor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(importProperties.getMaxQueuedJobs()),
+                new CustomizableThreadFactory("csv-import-job-"));
+    }
+
+    /**
+     * Stores the upload as it was sent and queues its import, compressed uploads are decompressed while importing.
+     *
+     * @param keepRejectedRows whether row numbers of rejected rows are kept for {@link #getRejectedRows(String)}
+     * @throws ImportJobRejectedException when every job slot and queue place is taken
+     */
+    public ImportJobDto submit(MultipartFile file, Compression compression, boolean keepRejectedRows) {
+        Objects.requireNonNull(file, ErrorMessages.FILE_CANNOT_BE_NULL);
+        csvService.validateContentType(file, compression);
+        removeExpiredJobs();
+        ImportJob job = new ImportJob(file.getOriginalFilename(),
+                SpoolUtils.spool(file, importProperties.getSpoolDirectory()), compression, keepRejectedRows);
+        jobs.put(job.getId(), job);
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteSpoolFile(job);
+            throw new ImportJobRejectedException(e);
+        }
+        log.info("Queued import job {} for file {}", job.getId(), job.getFileName());
+        return job.toDto();
+    }
+
+    public ImportJobDto getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId))
+                .map(ImportJob::toDto)
+                .orElseThrow(ImportJobNotFoundException::new);
+    }
+
+    /**
+     * @return {@code rowNumber,reason} csv of the rows the job rejected
+     * @throws RejectedRowsNotAvailableException when the job is still running or was submitted without keeping them
+     */
+    public Resource getRejectedRows(String jobId) {
+        ImportJob job = Optional.ofNullable(jobs.get(jobId))
+                .orElseThrow(ImportJobNotFoundException::new);
+        if (!job.isFinished() || job.getRejectsFile() == null) {
+            throw new RejectedRowsNotAvailableException();
+        }
+        return new FileSystemResource(job.getRejectsFile());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        jobs.values().forEach(this::deleteRejectsFile);
+    }
+
+    /**
+     * Compressed uploads are decompressed into a second spool file first, so the copy threshold compares the size of
+     * the csv and the pipeline can memory-map it.
+     */
+    private void run(ImportJob job) {
+        ImportStatistics statistics = job.start();
+        Exception failure = null;
+        Path csvFile = job.getSpoolFile();
+        try (RejectedRowsCsvWriter rejectsWriter = createRejectsWriter(job)) {
+            if (job.getCompression() != Compression.NONE) {
+                csvFile = SpoolUtils.spool(job.getCompression().decompress(new FileSystemResource(job.getSpoolFile())),
+                        importProperties.getSpoolDirectory());
+                deleteSpoolFile(job);
+            }
+            bankStatementService.importBankStatements(new FileSystemResource(csvFile), job.getFileName(),
+                    Files.size(csvFile), statistics, rejectsWriter);
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+        deleteSpoolFile(job);
+        SpoolUtils.delete(csvFile);
+        if (failure == null) {
+            job.complete();
+        } else {
+            log.error("Import job {} failed", job.getId(), failure);
+            job.fail(failure.getMessage());
+        }
+    }
+
+    private RejectedRowsCsvWriter createRejectsWriter(ImportJob job) throws IOException {
+        if (!job.isKeepingRejectedRows()) {
+            return null;
+        }
+        Path rejectsFile = Files.createTempFile(importProperties.getSpoolDirectory(), "bank-statement-rejects-", ".csv");
+        job.setRejectsFile(rejectsFile);
+        return new RejectedRowsCsvWriter(Files.newOutputStream(rejectsFile));
+    }
+
+    private void deleteSpoolFile(ImportJob job) {
+        SpoolUtils.delete(job.getSpoolFile());
+    }
+
+    private void deleteRejectsFile(ImportJob job) {
+        if (job.getRejectsFile() == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(job.getRejectsFile());
+        } catch (IOException e) {
+            log.warn("Failed to delete rejected rows file {}", job.getRejectsFile(), e);
+        }
+    }
+
+    private void removeExpiredJobs() {
+        Instant expiredBefore = Instant.now().minus(importProperties.getJobRetention());
+        Iterator<ImportJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            ImportJob job = iterator.next();
+            if (job.isFinished() && job.getFinishedAt().isBefore(expiredBefore)) {
+                iterator.remove();
+                deleteRejectsFile(job);
+            }
+        }
+    }
+}
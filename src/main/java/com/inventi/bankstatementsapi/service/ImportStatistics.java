@@ -0,0 +1,103 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.dto.ImportSummaryDto;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates row counts of a single import while its chunks are persisted.
+ * <p>
+ * Updated only by the thread running the import, counters are volatile so progress can be polled from other threads.
+ */
+@Getter
+public class ImportStatistics {
+
+    private final long startTime = System.nanoTime();
+
+    private volatile long finishTime;
+
+    private volatile long acceptedCount;
+
+    private volatile long rejectedCount;
+
+    private volatile long duplicateCount;
+
+    private volatile LocalDateTime firstOperationDate;
+
+    private volatile LocalDateTime lastOperationDate;
+
+    public void addRejected(long count) {
+        rejectedCount += count;
+    }
+
+    public void addDuplicates(long count) {
+        duplicateCount += count;
+    }
+
+    public void addAccepted(List<BankStatement> bankStatements) {
+        for (BankStatement bankStatement : bankStatements) {
+            LocalDateTime operationDate = bankStatement.getOperationDate();
+            if (firstOperationDate == null || operationDate.isBefore(firstOperationDate)) {
+                firstOperationDate = operationDate;
+            }
+            if (lastOperationDate == null || operationDate.isAfter(lastOperationDate)) {
+                lastOperationDate = operationDate;
+            }
+        }
+        acceptedCount += bankStatements.size();
+    }
+
+    /**
+     * Stops the clock, elapsed time and throughput no longer change afterwards.
+     */
+    public void finish() {
+        if (!isFinished()) {
+            finishTime = System.nanoTime();
+        }
+    }
+
+    public boolean isFinished() {
+        return finishTime != 0;
+    }
+
+    /**
+     * @return rows read from the file so far, whether accepted, rejected or already stored
+     */
+    public long getParsedCount() {
+        return acceptedCount + rejectedCount + duplicateCount;
+    }
+
+    /**
+     * @return rows of the file now stored, whether inserted by this import or an earlier one
+     */
+    public long getStoredCount() {
+        return acceptedCount + duplicateCount;
+    }
+
+    public long getElapsedMillis() {
+        long endTime = isFinished() ? finishTime : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis(endTime - startTime);
+    }
+
+    /**
+     * @return parsed rows per second since the import started
+     */
+    public long getRowsPerSecond() {
+        return getParsedCount() * 1000 / Math.max(getElapsedMillis(), 1);
+    }
+
+    public ImportSummaryDto toSummary() {
+        return ImportSummaryDto.builder()
+                .acceptedCount(acceptedCount)
+                .rejectedCount(rejectedCount)
+                .duplicateCount(duplicateCount)
+                .elapsedMillis(getElapsedMillis())
+                .firstOperationDate(firstOperationDate)
+                .lastOperationDate(lastOperationDate)
+                .build();
+    }
+}
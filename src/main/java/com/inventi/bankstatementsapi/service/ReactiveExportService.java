@@ -0,0 +1,85 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.config.ExportProperties;
+import com.inventi.bankstatementsapi.csv.BankStatementCsvWriter;
+import com.inventi.bankstatementsapi.csv.Compression;
+import com.inventi.bankstatementsapi.dto.ExportFormat;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.exception.ExportRejectedException;
+import com.inventi.bankstatementsapi.repository.BankStatementReactiveRepository;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.inventi.bankstatementsapi.utils.DateUtils.getFrom;
+import static com.inventi.bankstatementsapi.utils.DateUtils.getTo;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveExportService {
+
+    private final BankStatementReactiveRepository bankStatementReactiveRepository;
+
+    private final ExportProperties exportProperties;
+
+    private final BankStatementMetrics bankStatementMetrics;
+
+    /**
+     * Encodes the rows of the range in the csv export layout, one buffer per fetched batch of rows. Each requested
+     * buffer requests one batch from the database cursor, so rows are read only as fast as the client consumes them.
+     *
+     * @throws ExportRejectedException signalled when no R2DBC connection frees up in time
+     */
+    public Flux<DataBuffer> exportCsv(LocalDate from, LocalDate to, DataBufferFactory dataBufferFactory) {
+        return Flux.defer(() -> {
+            long startTime = System.nanoTime();
+            int bufferSize = (int) exportProperties.getBufferSize().toBytes();
+            ByteArrayOutputStream encodedRows = new ByteArrayOutputStream(bufferSize);
+            BankStatementCsvWriter bankStatementCsvWriter = new BankStatementCsvWriter(encodedRows, bufferSize);
+            MutableLong rowCount = new MutableLong();
+            MutableLong byteCount = new MutableLong();
+            return bankStatementReactiveRepository.streamAllByOperationDateIsBetween(getFrom(from), getTo(to))
+                    .buffer(exportProperties.getReactiveFetchSize())
+                    .map(bankStatements -> {
+                        DataBuffer dataBuffer = encode(bankStatements, bankStatementCsvWriter, encodedRows,
+                                dataBufferFactory);
+                        rowCount.add(bankStatements.size());
+                        byteCount.add(dataBuffer.readableByteCount());
+                        return dataBuffer;
+                    })
+                    .doOnComplete(() -> bankStatementMetrics.recordExport(ExportFormat.CSV, Compression.NONE,
+                            rowCount.longValue(), byteCount.longValue(), System.nanoTime() - startTime));
+        }).onErrorMap(ReactiveExportService::isConnectionAcquireTimeout, e -> new ExportRejectedException());
+    }
+
+    private DataBuffer encode(List<BankStatement> bankStatements, BankStatementCsvWriter bankStatementCsvWriter,
+                              ByteArrayOutputStream encodedRows, DataBufferFactory dataBufferFactory) {
+        try {
+            for (BankStatement bankStatement : bankStatements) {
+                bankStatementCsvWriter.write(bankStatement);
+            }
+            bankStatementCsvWriter.flush();
+        } catch (IOException e) {
+            // the writer only writes to memory
+            throw new UncheckedIOException(e);
+        }
+        DataBuffer dataBuffer = dataBufferFactory.wrap(encodedRows.toByteArray());
+        encodedRows.reset();
+        return dataBuffer;
+    }
+
+    private static boolean isConnectionAcquireTimeout(Throwable e) {
+        return e instanceof DataAccessResourceFailureException && e.getCause() instanceof R2dbcTimeoutException;
+    }
+}
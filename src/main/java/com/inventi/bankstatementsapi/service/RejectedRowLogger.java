@@ -0,0 +1,89 @@
+package com.inventi.bankstatementsapi.service;
+
+import com.inventi.bankstatementsapi.config.ImportProperties;
+import com.inventi.bankstatementsapi.csv.RejectedRows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Logs rejected import rows by row number and reason, at most {@link ImportProperties#getRejectedRowLogRate()} rows
+ * per second across all imports. Rows over the limit are only counted and reported as one line in the next second
+ * or once an import finishes, so a malformed feed costs a few atomic operations per row instead of a log line.
+ */
+@Component
+@Slf4j
+public class RejectedRowLogger {
+
+    private final int rowsPerSecond;
+
+    private final Clock clock;
+
+    private final AtomicReference<LogWindow> logWindow = new AtomicReference<>(new LogWindow(Long.MIN_VALUE, 0));
+
+    private final AtomicLong suppressedRows = new AtomicLong();
+
+    @Autowired
+    public RejectedRowLogger(ImportProperties importProperties) {
+        this(importProperties, Clock.systemUTC());
+    }
+
+    public RejectedRowLogger(ImportProperties importProperties, Clock clock) {
+        this.rowsPerSecond = importProperties.getRejectedRowLogRate();
+        this.clock = clock;
+    }
+
+    public void log(String fileName, RejectedRows rejectedRows) {
+        for (int i = 0; i < rejectedRows.size(); i++) {
+            if (tryAcquire()) {
+                log.info("Skipping row {} of file {}: {}", rejectedRows.getRowNumber(i), fileName,
+                        rejectedRows.getReason(i).getTagValue());
+            }
+        }
+    }
+
+    /**
+     * Reports the rows suppressed so far, called once an import finishes so its last suppressed rows are not left
+     * waiting for the next rejected row.
+     */
+    public void flush() {
+        long suppressed = suppressedRows.getAndSet(0);
+        if (suppressed > 0) {
+            log.info("Skipped logging of {} further rejected rows", suppressed);
+        }
+    }
+
+    private boolean tryAcquire() {
+        if (rowsPerSecond <= 0 || !log.isInfoEnabled()) {
+            return false;
+        }
+        long second = TimeUnit.MILLISECONDS.toSeconds(clock.millis());
+        while (true) {
+            LogWindow current = logWindow.get();
+            boolean sameSecond = current.second() == second;
+            if (sameSecond && current.loggedRows() >= rowsPerSecond) {
+                suppressedRows.incrementAndGet();
+                return false;
+            }
+            LogWindow next = new LogWindow(second, sameSecond ? current.loggedRows() + 1 : 1);
+            if (logWindow.compareAndSet(current, next)) {
+                if (!sameSecond) {
+                    flush();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Second and rows logged in it, swapped together so a new second cannot reset a count already raised in it.
+     */
+    private record LogWindow(long second,
+                             int loggedRows) {
+    }
+}
@@ -16,4 +16,22 @@ public class DateUtils {
     public static LocalDateTime getFrom(LocalDate from) {
         return from == null ? LocalDate.EPOCH.atStartOfDay() : from.atStartOfDay();
     }
+
+    /**
+     * Like {@link #getTo(LocalDate)}, but also takes an ISO date-time, which bounds the range to that exact instant.
+     */
+    public static LocalDateTime getToDateTime(String to) {
+        return to == null ? getTo(null) : parseDateOrDateTime(to);
+    }
+
+    /**
+     * Like {@link #getFrom(LocalDate)}, but also takes an ISO date-time, which bounds the range to that exact instant.
+     */
+    public static LocalDateTime getFromDateTime(String from) {
+        return from == null ? getFrom(null) : parseDateOrDateTime(from);
+    }
+
+    private static LocalDateTime parseDateOrDateTime(String value) {
+        return value.indexOf('T') < 0 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+    }
 }
@@ -0,0 +1,58 @@
+package com.inventi.bankstatementsapi.utils;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class HashUtils {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private static final char FIELD_SEPARATOR = '\u001f';
+
+    private static final DateTimeFormatter OPERATION_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Identifies a bank statement by its content, matching the {@code row_hash} backfill of the V5 migration.
+     */
+    public static byte[] rowHash(BankStatement bankStatement) {
+        BigDecimal amount = bankStatement.getAmount();
+        String row = Objects.toString(bankStatement.getAccountNumber(), "") + FIELD_SEPARATOR +
+                OPERATION_DATE_FORMATTER.format(bankStatement.getOperationDate()) + FIELD_SEPARATOR +
+                Objects.toString(bankStatement.getBeneficiary(), "") + FIELD_SEPARATOR +
+                Objects.toString(bankStatement.getComment(), "") + FIELD_SEPARATOR +
+                amount.stripTrailingZeros().toPlainString() + FIELD_SEPARATOR +
+                Objects.toString(bankStatement.getCurrency(), "");
+        return newDigest().digest(row.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static byte[] digest(InputStream inputStream) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) >= 0) {
+            digest.update(buffer, 0, read);
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not supported", e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.inventi.bankstatementsapi.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class MoneyUtils {
+
+    /**
+     * Scale of stored amounts, enough for the minor units of every ISO 4217 currency.
+     */
+    public static final int AMOUNT_SCALE = 4;
+
+    /**
+     * Integer digits of stored amounts, keeps amounts expressed in {@link #AMOUNT_SCALE} units within a {@code long}.
+     */
+    public static final int AMOUNT_INTEGER_DIGITS = 14;
+
+    private static final int DEFAULT_CURRENCY_SCALE = 2;
+
+    public static boolean isValidAmount(BigDecimal amount) {
+        if (amount == null) {
+            return false;
+        }
+        BigDecimal strippedAmount = amount.stripTrailingZeros();
+        return strippedAmount.scale() <= AMOUNT_SCALE
+                && strippedAmount.precision() - strippedAmount.scale() <= AMOUNT_INTEGER_DIGITS;
+    }
+
+    /**
+     * @return amount in units of {@code 10^-AMOUNT_SCALE}, the amount must be valid
+     */
+    public static long toUnits(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromUnits(long units) {
+        return BigDecimal.valueOf(units, AMOUNT_SCALE);
+    }
+
+    /**
+     * Presents the amount with the minor unit digits of its currency, keeping any further non-zero digits.
+     */
+    public static BigDecimal toCurrencyScale(BigDecimal amount, String currency) {
+        if (amount == null) {
+            return null;
+        }
+        return amount.setScale(Math.max(getCurrencyScale(currency), amount.stripTrailingZeros().scale()));
+    }
+
+    private static int getCurrencyScale(String currency) {
+        try {
+            int scale = Currency.getInstance(currency).getDefaultFractionDigits();
+            return scale < 0 ? DEFAULT_CURRENCY_SCALE : scale;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return DEFAULT_CURRENCY_SCALE;
+        }
+    }
+}
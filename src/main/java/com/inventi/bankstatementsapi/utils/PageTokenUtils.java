@@ -0,0 +1,39 @@
+package com.inventi.bankstatementsapi.utils;
+
+import com.inventi.bankstatementsapi.exception.InvalidPageTokenException;
+import com.inventi.bankstatementsapi.repository.BankStatementKey;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Encodes listing positions as opaque url safe continuation tokens.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PageTokenUtils {
+
+    private static final String SEPARATOR = "|";
+
+    public static String encode(BankStatementKey key) {
+        String token = key.operationDate() + SEPARATOR + key.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidPageTokenException when the token was not created by {@link #encode}
+     */
+    public static BankStatementKey decode(String token) {
+        try {
+            String decodedToken = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decodedToken.indexOf(SEPARATOR);
+            return new BankStatementKey(LocalDateTime.parse(decodedToken.substring(0, separator)),
+                    Long.parseLong(decodedToken.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeException | IndexOutOfBoundsException e) {
+            throw new InvalidPageTokenException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.inventi.bankstatementsapi.utils;
+
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+import com.inventi.bankstatementsapi.exception.CsvImportFailedException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class SpoolUtils {
+
+    private static final String PREFIX = "bank-statements-";
+
+    private static final String SUFFIX = ".csv";
+
+    /**
+     * Stores the upload as it was sent in {@code directory}. A multipart upload already on disk is moved there, which
+     * is a rename when both are on the same file system.
+     *
+     * @throws CsvImportFailedException when the file could not be stored
+     */
+    public static Path spool(MultipartFile file, Path directory) {
+        Path spoolFile = null;
+        try {
+            spoolFile = Files.createTempFile(directory, PREFIX, SUFFIX);
+            file.transferTo(spoolFile);
+            return spoolFile;
+        } catch (IOException e) {
+            if (spoolFile != null) {
+                spoolFile.toFile().delete();
+            }
+            throw new CsvImportFailedException(ErrorMessages.IMPORT_CSV_FAILED_FILE_COULD_NOT_BE_SPOOLED, e);
+        }
+    }
+
+    /**
+     * Stores the content of {@code source}, such as a decompressed upload, in {@code directory}.
+     *
+     * @throws CsvImportFailedException when the content could not be read or stored
+     */
+    public static Path spool(InputStreamSource source, Path directory) {
+        Path spoolFile = null;
+        try (InputStream inputStream = source.getInputStream()) {
+            spoolFile = Files.createTempFile(directory, PREFIX, SUFFIX);
+            Files.copy(inputStream, spoolFile, StandardCopyOption.REPLACE_EXISTING);
+            return spoolFile;
+        } catch (IOException e) {
+            if (spoolFile != null) {
+                spoolFile.toFile().delete();
+            }
+            throw new CsvImportFailedException(ErrorMessages.IMPORT_CSV_FAILED_FILE_COULD_NOT_BE_DECOMPRESSED, e);
+        }
+    }
+
+    public static void delete(Path spoolFile) {
+        try {
+            Files.deleteIfExists(spoolFile);
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled import file {}", spoolFile, e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+-- Matches the schema previously created by hibernate ddl-auto, so existing databases are migrated in place.
+CREATE SEQUENCE IF NOT EXISTS bank_statement_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS bank_statement
+(
+    id             BIGINT      NOT NULL,
+    account_number VARCHAR(50) NOT NULL,
+    operation_date TIMESTAMP   NOT NULL,
+    beneficiary    VARCHAR(50) NOT NULL,
+    comment        VARCHAR(255),
+    amount         FLOAT8      NOT NULL,
+    currency       VARCHAR(10) NOT NULL,
+    CONSTRAINT bank_statement_pkey PRIMARY KEY (id)
+);
+
+SELECT setval('bank_statement_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM bank_statement));
@@ -0,0 +1,11 @@
+-- Balance queries read sent and received rows of an account within a date range. Including the aggregated columns
+-- lets both halves of the balance query run as index-only scans.
+CREATE INDEX IF NOT EXISTS bank_statement_account_number_operation_date_idx
+    ON bank_statement (account_number, operation_date) INCLUDE (currency, amount);
+
+CREATE INDEX IF NOT EXISTS bank_statement_beneficiary_operation_date_idx
+    ON bank_statement (beneficiary, operation_date) INCLUDE (currency, amount);
+
+-- Export reads every row within a date range.
+CREATE INDEX IF NOT EXISTS bank_statement_operation_date_idx
+    ON bank_statement (operation_date);
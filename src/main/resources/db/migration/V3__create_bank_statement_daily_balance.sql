@@ -0,0 +1,20 @@
+-- Net amount received minus sent per account, currency and day, maintained by every import. Balance queries sum
+-- whole days from here and only read raw bank statements for partially covered edge days.
+CREATE TABLE IF NOT EXISTS bank_statement_daily_balance
+(
+    account_number VARCHAR(50) NOT NULL,
+    day            DATE        NOT NULL,
+    currency       VARCHAR(10) NOT NULL,
+    amount         FLOAT8      NOT NULL,
+    CONSTRAINT bank_statement_daily_balance_pkey PRIMARY KEY (account_number, day, currency)
+);
+
+INSERT INTO bank_statement_daily_balance (account_number, day, currency, amount)
+SELECT account_number, day, currency, SUM(amount)
+FROM (SELECT account_number, CAST(operation_date AS DATE) AS day, currency, -amount AS amount
+      FROM bank_statement
+      UNION ALL
+      SELECT beneficiary, CAST(operation_date AS DATE), currency, amount
+      FROM bank_statement) amounts
+GROUP BY account_number, day, currency
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,16 @@
+-- Amounts become exact decimals. The rollup is rebuilt from the converted amounts, dropping the floating point
+-- error it accumulated.
+ALTER TABLE bank_statement ALTER COLUMN amount TYPE NUMERIC(18, 4);
+
+ALTER TABLE bank_statement_daily_balance ALTER COLUMN amount TYPE NUMERIC(24, 4);
+
+TRUNCATE bank_statement_daily_balance;
+
+INSERT INTO bank_statement_daily_balance (account_number, day, currency, amount)
+SELECT account_number, day, currency, SUM(amount)
+FROM (SELECT account_number, CAST(operation_date AS DATE) AS day, currency, -amount AS amount
+      FROM bank_statement
+      UNION ALL
+      SELECT beneficiary, CAST(operation_date AS DATE), currency, amount
+      FROM bank_statement) amounts
+GROUP BY account_number, day, currency;
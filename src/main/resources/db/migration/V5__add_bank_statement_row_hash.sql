@@ -0,0 +1,41 @@
+-- SHA-256 over the content of a row identifies it across uploads, so re-imported rows are skipped instead of being
+-- stored twice. Must match HashUtils#rowHash: fields joined by the unit separator, an empty comment for null, the
+-- operation date in ISO format and the amount without trailing zeros.
+ALTER TABLE bank_statement ADD COLUMN row_hash BYTEA;
+
+UPDATE bank_statement
+SET row_hash = sha256(convert_to(concat_ws(chr(31), account_number,
+                                           to_char(operation_date, 'YYYY-MM-DD"T"HH24:MI:SS'), beneficiary,
+                                           coalesce(comment, ''), trim_scale(amount)::TEXT, currency), 'UTF8'));
+
+-- Rows stored more than once before deduplication existed keep only their first copy, the rollup is rebuilt to match.
+DELETE
+FROM bank_statement duplicate
+    USING bank_statement original
+WHERE duplicate.row_hash = original.row_hash
+  AND duplicate.id > original.id;
+
+ALTER TABLE bank_statement ALTER COLUMN row_hash SET NOT NULL;
+
+ALTER TABLE bank_statement ADD CONSTRAINT bank_statement_row_hash_key UNIQUE (row_hash);
+
+TRUNCATE bank_statement_daily_balance;
+
+INSERT INTO bank_statement_daily_balance (account_number, day, currency, amount)
+SELECT account_number, day, currency, SUM(amount)
+FROM (SELECT account_number, CAST(operation_date AS DATE) AS day, currency, -amount AS amount
+      FROM bank_statement
+      UNION ALL
+      SELECT beneficiary, CAST(operation_date AS DATE), currency, amount
+      FROM bank_statement) amounts
+GROUP BY account_number, day, currency;
+
+-- SHA-256 of every fully imported file, a repeated upload is answered from here without being parsed.
+CREATE TABLE bank_statement_import_file
+(
+    digest      BYTEA        NOT NULL,
+    file_name   VARCHAR(255),
+    row_count   BIGINT       NOT NULL,
+    imported_at TIMESTAMP    NOT NULL,
+    CONSTRAINT bank_statement_import_file_pkey PRIMARY KEY (digest)
+);
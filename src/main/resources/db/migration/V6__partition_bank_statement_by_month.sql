@@ -0,0 +1,64 @@
+-- bank_statement becomes a table range partitioned by month of operation_date, so date bounded queries only read the
+-- months they cover and old months can be detached without rewriting the rest. Unique constraints of a partitioned
+-- table must contain the partition key, operation_date is already part of the row hash so deduplication is unchanged.
+ALTER TABLE bank_statement RENAME TO bank_statement_unpartitioned;
+
+ALTER TABLE bank_statement_unpartitioned RENAME CONSTRAINT bank_statement_pkey TO bank_statement_unpartitioned_pkey;
+
+ALTER TABLE bank_statement_unpartitioned
+    RENAME CONSTRAINT bank_statement_row_hash_key TO bank_statement_unpartitioned_row_hash_key;
+
+DROP INDEX bank_statement_account_number_operation_date_idx;
+
+DROP INDEX bank_statement_beneficiary_operation_date_idx;
+
+DROP INDEX bank_statement_operation_date_idx;
+
+CREATE TABLE bank_statement
+(
+    id             BIGINT         NOT NULL,
+    account_number VARCHAR(50)    NOT NULL,
+    operation_date TIMESTAMP      NOT NULL,
+    beneficiary    VARCHAR(50)    NOT NULL,
+    comment        VARCHAR(255),
+    amount         NUMERIC(18, 4) NOT NULL,
+    currency       VARCHAR(10)    NOT NULL,
+    row_hash       BYTEA          NOT NULL,
+    CONSTRAINT bank_statement_pkey PRIMARY KEY (id, operation_date),
+    CONSTRAINT bank_statement_row_hash_key UNIQUE (row_hash, operation_date)
+) PARTITION BY RANGE (operation_date);
+
+-- One partition per month named bank_statement_yyyy_mm, from the first stored month until three months ahead.
+-- Later months are created by BankStatementPartitionService.
+DO
+$$
+    DECLARE
+        month DATE;
+    BEGIN
+        FOR month IN
+            SELECT generate_series(date_trunc('month', LEAST(MIN(operation_date), LOCALTIMESTAMP)),
+                                   date_trunc('month', GREATEST(MAX(operation_date), LOCALTIMESTAMP)) + INTERVAL '3 months',
+                                   INTERVAL '1 month')::DATE
+            FROM bank_statement_unpartitioned
+            LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF bank_statement FOR VALUES FROM (%L) TO (%L)',
+                               'bank_statement_' || to_char(month, 'YYYY_MM'), month, month + INTERVAL '1 month');
+            END LOOP;
+    END
+$$;
+
+INSERT INTO bank_statement (id, account_number, operation_date, beneficiary, comment, amount, currency, row_hash)
+SELECT id, account_number, operation_date, beneficiary, comment, amount, currency, row_hash
+FROM bank_statement_unpartitioned;
+
+DROP TABLE bank_statement_unpartitioned;
+
+-- Indexes declared on the partitioned table are created on every existing and future partition.
+CREATE INDEX bank_statement_account_number_operation_date_idx
+    ON bank_statement (account_number, operation_date) INCLUDE (currency, amount);
+
+CREATE INDEX bank_statement_beneficiary_operation_date_idx
+    ON bank_statement (beneficiary, operation_date) INCLUDE (currency, amount);
+
+CREATE INDEX bank_statement_operation_date_idx
+    ON bank_statement (operation_date);
@@ -0,0 +1,123 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.config.BalanceCacheProperties;
+import com.inventi.bankstatementsapi.dto.AccountBalanceDto;
+import com.inventi.bankstatementsapi.service.AccountBalanceCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AccountBalanceCacheTest {
+
+    private static final LocalDateTime DATE_TIME_FROM = LocalDateTime.of(2022, 1, 1, 0, 0);
+    private static final LocalDateTime DATE_TIME_TO = LocalDateTime.of(2022, 12, 31, 0, 0);
+    private static final List<AccountBalanceDto> ACCOUNT_BALANCES = List.of(new AccountBalanceDto("EUR", new BigDecimal("100.00")));
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private AccountBalanceCache accountBalanceCache;
+
+    @BeforeEach
+    void setup() {
+        accountBalanceCache = new AccountBalanceCache(new BalanceCacheProperties(), meterRegistry);
+    }
+
+    @Test
+    void get_whenSameKeyIsRequestedAgain_shouldReturnCachedBalancesAndCountHit() {
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO);
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO);
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO.plusDays(1));
+        assertEquals(2, loadCount.get());
+        assertEquals(1, cacheGets("hit"));
+        assertEquals(2, cacheGets("miss"));
+    }
+
+    @Test
+    void invalidate_whenAccountIsInvalidated_shouldReloadOnlyThatAccount() {
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO);
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO.plusDays(1));
+        get("account2", DATE_TIME_FROM, DATE_TIME_TO);
+        accountBalanceCache.invalidate(Set.of("account1", "account3"));
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO);
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO.plusDays(1));
+        get("account2", DATE_TIME_FROM, DATE_TIME_TO);
+        assertEquals(5, loadCount.get());
+    }
+
+    @Test
+    void invalidate_whenAccountIsInvalidated_shouldRemoveOnlyItsEntries() {
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO);
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO.plusDays(1));
+        get("account2", DATE_TIME_FROM, DATE_TIME_TO);
+        accountBalanceCache.invalidate(Set.of("account1"));
+        assertEquals(1, meterRegistry.get("cache.size").tag("cache", AccountBalanceCache.CACHE_NAME).gauge().value());
+    }
+
+    @Test
+    void invalidateAll_whenBalancesAreCached_shouldReloadEveryAccount() {
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO);
+        get("account2", DATE_TIME_FROM, DATE_TIME_TO);
+        accountBalanceCache.invalidateAll();
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO);
+        get("account2", DATE_TIME_FROM, DATE_TIME_TO);
+        assertEquals(4, loadCount.get());
+    }
+
+    @Test
+    void get_whenGenerationChangesWhileLoading_shouldNotServeLoadedBalancesAgain() {
+        // "Aa" and "BB" share a hash code and with it a generation, invalidating "BB" does not wait for the load of "Aa"
+        List<AccountBalanceDto> accountBalances = accountBalanceCache.get("Aa", DATE_TIME_FROM, DATE_TIME_TO, () -> {
+            loadCount.incrementAndGet();
+            accountBalanceCache.invalidate(Set.of("BB"));
+            return ACCOUNT_BALANCES;
+        });
+        assertEquals(ACCOUNT_BALANCES, accountBalances);
+        get("Aa", DATE_TIME_FROM, DATE_TIME_TO);
+        get("Aa", DATE_TIME_FROM, DATE_TIME_TO);
+        assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    void getAll_whenAccountIsInvalidatedWhileLoading_shouldNotServeItsLoadedBalancesAgain() {
+        Map<String, List<AccountBalanceDto>> accountBalances = accountBalanceCache.getAll(List.of("account1", "account2"),
+                DATE_TIME_FROM, DATE_TIME_TO, accountNumbers -> {
+                    loadCount.addAndGet(accountNumbers.size());
+                    accountBalanceCache.invalidate(Set.of("account1"));
+                    return accountNumbers.stream().collect(Collectors.toMap(Function.identity(), accountNumber -> ACCOUNT_BALANCES));
+                });
+        assertEquals(List.of("account1", "account2"), List.copyOf(accountBalances.keySet()));
+        get("account1", DATE_TIME_FROM, DATE_TIME_TO);
+        get("account2", DATE_TIME_FROM, DATE_TIME_TO);
+        assertEquals(3, loadCount.get());
+    }
+
+    private void get(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        List<AccountBalanceDto> accountBalances = accountBalanceCache.get(accountNumber, from, to, () -> {
+            loadCount.incrementAndGet();
+            return ACCOUNT_BALANCES;
+        });
+        assertEquals(ACCOUNT_BALANCES, accountBalances);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", AccountBalanceCache.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,95 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.config.BalanceCacheProperties;
+import com.inventi.bankstatementsapi.dto.AccountBalanceDto;
+import com.inventi.bankstatementsapi.repository.AccountBalanceView;
+import com.inventi.bankstatementsapi.repository.AccountsBalanceView;
+import com.inventi.bankstatementsapi.repository.BankStatementRepository;
+import com.inventi.bankstatementsapi.service.AccountBalanceCache;
+import com.inventi.bankstatementsapi.service.AccountBalanceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AccountBalanceServiceTest {
+
+    private static final LocalDateTime DATE_TIME_FROM = LocalDateTime.of(2022, 1, 1, 0, 0);
+    private static final LocalDateTime DATE_TIME_TO = LocalDateTime.of(2022, 12, 31, 0, 0);
+    private static final LocalDate DATE_FROM = LocalDate.of(2022, 1, 1);
+    private static final LocalDate DATE_TO = LocalDate.of(2022, 12, 31);
+
+    private final BankStatementRepository bankStatementRepository = mock(BankStatementRepository.class);
+
+    private AccountBalanceService accountBalanceService;
+
+    @BeforeEach
+    void setup() {
+        accountBalanceService = new AccountBalanceService(bankStatementRepository,
+                new AccountBalanceCache(new BalanceCacheProperties(), new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void getAccountBalance_whenDatesAreGiven_shouldQueryBalancesForWholeDays() {
+        when(bankStatementRepository.getAccountBalances("account1", DATE_TIME_FROM, DATE_TIME_TO))
+                .thenReturn(List.of(accountBalanceView("EUR", new BigDecimal("200.0000")), accountBalanceView("USD", new BigDecimal("-100.0000"))));
+        List<AccountBalanceDto> accountBalances = accountBalanceService.getAccountBalances("account1", DATE_FROM, DATE_TO);
+        assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("200.00")), new AccountBalanceDto("USD", new BigDecimal("-100.00"))), accountBalances);
+    }
+
+    @Test
+    void getAccountBalance_whenSameRangeIsRequestedTwice_shouldQueryRepositoryOnce() {
+        when(bankStatementRepository.getAccountBalances("account1", DATE_TIME_FROM, DATE_TIME_TO))
+                .thenReturn(List.of(accountBalanceView("EUR", new BigDecimal("200.00"))));
+        List<AccountBalanceDto> firstAccountBalances = accountBalanceService.getAccountBalances("account1", DATE_FROM, DATE_TO);
+        List<AccountBalanceDto> secondAccountBalances = accountBalanceService.getAccountBalances("account1", DATE_FROM, DATE_TO);
+        assertEquals(firstAccountBalances, secondAccountBalances);
+        verify(bankStatementRepository, times(1)).getAccountBalances("account1", DATE_TIME_FROM, DATE_TIME_TO);
+    }
+
+    @Test
+    void getAccountsBalances_whenAccountHasNoStatements_shouldReturnEmptyBalances() {
+        when(bankStatementRepository.getAccountsBalances(Set.of("account1", "account2"), DATE_TIME_FROM, DATE_TIME_TO))
+                .thenReturn(List.of(accountsBalanceView("account1", "EUR", new BigDecimal("200.0000"))));
+        Map<String, List<AccountBalanceDto>> accountsBalances = accountBalanceService.getAccountsBalances(List.of("account2", "account1", "account2"), DATE_FROM, DATE_TO);
+        assertEquals(List.of("account2", "account1"), List.copyOf(accountsBalances.keySet()));
+        assertEquals(List.of(), accountsBalances.get("account2"));
+        assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("200.00"))), accountsBalances.get("account1"));
+    }
+
+    @Test
+    void getAccountsBalances_whenSomeAccountsAreCached_shouldQueryOnlyMissingAccounts() {
+        when(bankStatementRepository.getAccountBalances("account1", DATE_TIME_FROM, DATE_TIME_TO))
+                .thenReturn(List.of(accountBalanceView("EUR", new BigDecimal("200.00"))));
+        when(bankStatementRepository.getAccountsBalances(Set.of("account2"), DATE_TIME_FROM, DATE_TIME_TO))
+                .thenReturn(List.of(accountsBalanceView("account2", "USD", new BigDecimal("-100.00"))));
+        accountBalanceService.getAccountBalances("account1", DATE_FROM, DATE_TO);
+        Map<String, List<AccountBalanceDto>> accountsBalances = accountBalanceService.getAccountsBalances(List.of("account1", "account2"), DATE_FROM, DATE_TO);
+        assertEquals(Map.of("account1", List.of(new AccountBalanceDto("EUR", new BigDecimal("200.00"))),
+                "account2", List.of(new AccountBalanceDto("USD", new BigDecimal("-100.00")))), accountsBalances);
+        verify(bankStatementRepository, times(1)).getAccountsBalances(Set.of("account2"), DATE_TIME_FROM, DATE_TIME_TO);
+    }
+
+    private AccountBalanceView accountBalanceView(String currency, BigDecimal amount) {
+        return new SpelAwareProxyProjectionFactory()
+                .createProjection(AccountBalanceView.class, Map.of("currency", currency, "amount", amount));
+    }
+
+    private AccountsBalanceView accountsBalanceView(String accountNumber, String currency, BigDecimal amount) {
+        return new SpelAwareProxyProjectionFactory()
+                .createProjection(AccountsBalanceView.class, Map.of("accountNumber", accountNumber, "currency", currency, "amount", amount));
+    }
+}
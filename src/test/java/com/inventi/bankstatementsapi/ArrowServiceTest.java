@@ -0,0 +1,114 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.service.ArrowService;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class ArrowServiceTest {
+
+    private final ArrowService arrowService = new ArrowService();
+
+    @Test
+    void writeBankStatementsToArrow_whenRowsSpanSeveralBatches_shouldReadBackEveryRow() throws IOException {
+        List<BankStatement> bankStatements = List.of(
+                new BankStatement(1L, "account1", LocalDateTime.of(2022, 9, 19, 20, 55, 41), "account2", "comment", new BigDecimal("100.5"), "EUR"),
+                new BankStatement(2L, "account1", LocalDateTime.of(2022, 9, 19, 20, 55, 42), "account3", null, new BigDecimal("-0.0001"), "USD"),
+                new BankStatement(3L, "account4", LocalDateTime.of(2022, 9, 20, 8, 0, 0), "account1", "ąčę", new BigDecimal("99999999999999.9999"), "EUR"),
+                new BankStatement(4L, "account4", LocalDateTime.of(2022, 9, 21, 8, 0, 0), "account1", "", new BigDecimal("1"), "EUR"),
+                new BankStatement(5L, "account5", LocalDateTime.of(2022, 9, 22, 8, 0, 0), "account6", null, new BigDecimal("2"), "GBP"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        arrowService.writeBankStatementsToArrow(bankStatements.stream(), output, 2);
+
+        List<BankStatement> readBankStatements = new ArrayList<>();
+        int batches = read(output.toByteArray(), readBankStatements);
+        assertEquals(3, batches);
+        assertEquals(bankStatements.stream().map(this::withAmountScale).toList(), readBankStatements);
+    }
+
+    @Test
+    void writeBankStatementsToArrow_shouldEncodeTextColumnsWithDictionaries() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        arrowService.writeBankStatementsToArrow(Stream.empty(), output, 2);
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(output.toByteArray()), allocator)) {
+            Schema schema = reader.getVectorSchemaRoot().getSchema();
+            assertNotNull(schema.findField("accountNumber").getDictionary());
+            assertNotNull(schema.findField("beneficiary").getDictionary());
+            assertNotNull(schema.findField("currency").getDictionary());
+            assertInstanceOf(ArrowType.Timestamp.class, schema.findField("operationDate").getType());
+            assertInstanceOf(ArrowType.Decimal.class, schema.findField("amount").getType());
+            assertEquals(false, reader.loadNextBatch());
+        }
+    }
+
+    private int read(byte[] bytes, List<BankStatement> bankStatements) throws IOException {
+        int batches = 0;
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(bytes), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                batches++;
+                try (ValueVector accountNumbers = decode(reader, root.getVector("accountNumber"));
+                     ValueVector beneficiaries = decode(reader, root.getVector("beneficiary"));
+                     ValueVector currencies = decode(reader, root.getVector("currency"))) {
+                    for (int row = 0; row < root.getRowCount(); row++) {
+                        VarCharVector comments = (VarCharVector) root.getVector("comment");
+                        bankStatements.add(new BankStatement(
+                                ((BigIntVector) root.getVector("id")).get(row),
+                                text(accountNumbers, row),
+                                LocalDateTime.ofEpochSecond(((TimeStampMicroVector) root.getVector("operationDate")).get(row) / 1_000_000, 0, ZoneOffset.UTC),
+                                text(beneficiaries, row),
+                                comments.isNull(row) ? null : new String(comments.get(row), StandardCharsets.UTF_8),
+                                ((DecimalVector) root.getVector("amount")).getObject(row),
+                                text(currencies, row)));
+                    }
+                }
+            }
+        }
+        return batches;
+    }
+
+    private ValueVector decode(ArrowStreamReader reader, FieldVector indexes) throws IOException {
+        Dictionary dictionary = reader.getDictionaryVectors().get(indexes.getField().getDictionary().getId());
+        return DictionaryEncoder.decode(indexes, dictionary);
+    }
+
+    private String text(ValueVector vector, int row) {
+        return new String(((VarCharVector) vector).get(row), StandardCharsets.UTF_8);
+    }
+
+    private BankStatement withAmountScale(BankStatement bankStatement) {
+        return new BankStatement(bankStatement.getId(), bankStatement.getAccountNumber(), bankStatement.getOperationDate(),
+                bankStatement.getBeneficiary(), bankStatement.getComment(), bankStatement.getAmount().setScale(4),
+                bankStatement.getCurrency());
+    }
+}
@@ -0,0 +1,87 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.repository.BankStatementCopyRepository;
+import com.inventi.bankstatementsapi.repository.BankStatementDailyBalanceRepository;
+import com.inventi.bankstatementsapi.repository.BankStatementInsertRepository;
+import com.inventi.bankstatementsapi.service.AccountBalanceCache;
+import com.inventi.bankstatementsapi.service.BankStatementChunkWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BankStatementChunkWriterTest {
+
+    private static final List<BankStatement> BANK_STATEMENTS = List.of(
+            new BankStatement(null, "account1", LocalDateTime.of(2022, 9, 19, 20, 55, 41), "account2", "comment", new BigDecimal("100"), "EUR"),
+            new BankStatement(null, "account3", LocalDateTime.of(2022, 9, 20, 20, 55, 41), "account1", "comment", new BigDecimal("100"), "EUR")
+    );
+
+    @Mock
+    private BankStatementInsertRepository bankStatementInsertRepository;
+
+    @Mock
+    private BankStatementCopyRepository bankStatementCopyRepository;
+
+    @Mock
+    private BankStatementDailyBalanceRepository bankStatementDailyBalanceRepository;
+
+    @Mock
+    private AccountBalanceCache accountBalanceCache;
+
+    @InjectMocks
+    private BankStatementChunkWriter bankStatementChunkWriter;
+
+    @BeforeEach
+    void setup() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void cleanup() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void save_whenTransactionCommits_shouldUpdateRollupAndInvalidateSendersAndBeneficiaries() {
+        when(bankStatementInsertRepository.insertNew(BANK_STATEMENTS)).thenReturn(BANK_STATEMENTS);
+        bankStatementChunkWriter.save(BANK_STATEMENTS);
+        verify(bankStatementDailyBalanceRepository).add(BANK_STATEMENTS);
+        verify(accountBalanceCache, never()).invalidate(any());
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        verify(accountBalanceCache).invalidate(Set.of("account1", "account2", "account3"));
+    }
+
+    @Test
+    void save_whenEveryRowIsDuplicate_shouldLeaveRollupAndCacheUntouched() {
+        when(bankStatementInsertRepository.insertNew(BANK_STATEMENTS)).thenReturn(List.of());
+        assertEquals(List.of(), bankStatementChunkWriter.save(BANK_STATEMENTS));
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        verifyNoInteractions(bankStatementDailyBalanceRepository, accountBalanceCache);
+    }
+
+    @Test
+    void copy_whenTransactionRollsBack_shouldNotInvalidateBalances() {
+        when(bankStatementCopyRepository.copy(BANK_STATEMENTS)).thenReturn(BANK_STATEMENTS);
+        bankStatementChunkWriter.copy(BANK_STATEMENTS);
+        verify(bankStatementCopyRepository).copy(BANK_STATEMENTS);
+        verify(bankStatementDailyBalanceRepository).add(BANK_STATEMENTS);
+        verify(accountBalanceCache, never()).invalidate(any());
+    }
+}
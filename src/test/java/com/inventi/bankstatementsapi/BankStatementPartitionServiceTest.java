@@ -0,0 +1,107 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.config.PartitionProperties;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.repository.BankStatementPartitionRepository;
+import com.inventi.bankstatementsapi.service.AccountBalanceCache;
+import com.inventi.bankstatementsapi.service.BankStatementPartitionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BankStatementPartitionServiceTest {
+
+    @Mock
+    private BankStatementPartitionRepository bankStatementPartitionRepository;
+
+    @Spy
+    private PartitionProperties partitionProperties = new PartitionProperties();
+
+    @Mock
+    private AccountBalanceCache accountBalanceCache;
+
+    @InjectMocks
+    private BankStatementPartitionService bankStatementPartitionService;
+
+    @Test
+    void ensurePartitions_whenMonthsAreMissing_shouldCreateEachMonthOnce() {
+        List<BankStatement> bankStatements = List.of(
+                bankStatement(LocalDateTime.of(2022, 9, 19, 20, 55, 41)),
+                bankStatement(LocalDateTime.of(2022, 9, 30, 23, 59, 59)),
+                bankStatement(LocalDateTime.of(2022, 10, 1, 0, 0)));
+        bankStatementPartitionService.ensurePartitions(bankStatements);
+        bankStatementPartitionService.ensurePartitions(bankStatements);
+        verify(bankStatementPartitionRepository).create(YearMonth.of(2022, 9));
+        verify(bankStatementPartitionRepository).create(YearMonth.of(2022, 10));
+        verifyNoMoreInteractions(bankStatementPartitionRepository);
+    }
+
+    @Test
+    void maintainPartitions_whenPartitionsExist_shouldCreateOnlyMissingMonthsAhead() {
+        YearMonth currentMonth = YearMonth.now();
+        partitionProperties.setMonthsAhead(2);
+        when(bankStatementPartitionRepository.findPartitions()).thenReturn(List.of(currentMonth, currentMonth.plusMonths(1)));
+        bankStatementPartitionService.maintainPartitions();
+        verify(bankStatementPartitionRepository).create(currentMonth.plusMonths(2));
+        verify(bankStatementPartitionRepository, never()).detach(any());
+        verify(bankStatementPartitionRepository, times(1)).create(any());
+        verifyNoInteractions(accountBalanceCache);
+    }
+
+    @Test
+    void maintainPartitions_whenRetentionIsSet_shouldDetachAndArchiveOlderMonths() {
+        YearMonth currentMonth = YearMonth.now();
+        partitionProperties.setMonthsAhead(0);
+        partitionProperties.setRetention(Period.ofMonths(12));
+        when(bankStatementPartitionRepository.findPartitions())
+                .thenReturn(List.of(currentMonth.minusMonths(13), currentMonth.minusMonths(12), currentMonth));
+        when(bankStatementPartitionRepository.archive(currentMonth.minusMonths(13))).thenReturn("partition");
+        bankStatementPartitionService.maintainPartitions();
+        InOrder inOrder = inOrder(bankStatementPartitionRepository, accountBalanceCache);
+        inOrder.verify(bankStatementPartitionRepository).detach(currentMonth.minusMonths(13));
+        inOrder.verify(bankStatementPartitionRepository).archive(currentMonth.minusMonths(13));
+        inOrder.verify(accountBalanceCache).invalidateAll();
+        verify(bankStatementPartitionRepository, never()).detach(currentMonth.minusMonths(12));
+        verify(bankStatementPartitionRepository, never()).create(any());
+    }
+
+    @Test
+    void detachPartitionsBefore_whenPartitionWasAttachedAgain_shouldNotReportIt() {
+        YearMonth month = YearMonth.of(2020, 1);
+        when(bankStatementPartitionRepository.findPartitions()).thenReturn(List.of(month));
+        assertEquals(List.of(), bankStatementPartitionService.detachPartitionsBefore(YearMonth.of(2020, 2)));
+        verify(bankStatementPartitionRepository).archive(month);
+        verifyNoInteractions(accountBalanceCache);
+    }
+
+    @Test
+    void detachPartitionsBefore_whenPartitionWasDetached_shouldCreateItAgainOnDemand() {
+        YearMonth month = YearMonth.of(2020, 1);
+        when(bankStatementPartitionRepository.findPartitions()).thenReturn(List.of(month));
+        when(bankStatementPartitionRepository.archive(month)).thenReturn("bank_statement_2020_01_archived_20240101010000");
+        bankStatementPartitionService.ensurePartitions(List.of(bankStatement(month.atDay(1).atStartOfDay())));
+        assertEquals(List.of("bank_statement_2020_01_archived_20240101010000"),
+                bankStatementPartitionService.detachPartitionsBefore(YearMonth.of(2020, 2)));
+        bankStatementPartitionService.ensurePartitions(List.of(bankStatement(month.atDay(1).atStartOfDay())));
+        verify(bankStatementPartitionRepository, times(2)).create(month);
+    }
+
+    private static BankStatement bankStatement(LocalDateTime operationDate) {
+        return new BankStatement(null, "account1", operationDate, "account2", "comment", new BigDecimal("100"), "EUR");
+    }
+}
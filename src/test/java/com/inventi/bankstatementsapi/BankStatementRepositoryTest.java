@@ -0,0 +1,500 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.config.ExportProperties;
+import com.inventi.bankstatementsapi.dto.AccountBalanceDto;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.mapper.BankStatementMapper;
+import com.inventi.bankstatementsapi.repository.BankStatementCopyRepository;
+import com.inventi.bankstatementsapi.repository.BankStatementDailyBalanceRepository;
+import com.inventi.bankstatementsapi.repository.BankStatementFilter;
+import com.inventi.bankstatementsapi.repository.BankStatementIdAllocator;
+import com.inventi.bankstatementsapi.repository.BankStatementInsertRepository;
+import com.inventi.bankstatementsapi.repository.BankStatementKey;
+import com.inventi.bankstatementsapi.repository.BankStatementPartitionRepository;
+import com.inventi.bankstatementsapi.repository.BankStatementReactiveRepository;
+import com.inventi.bankstatementsapi.repository.BankStatementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BankStatementDailyBalanceRepository.class, BankStatementInsertRepository.class,
+        BankStatementCopyRepository.class, BankStatementIdAllocator.class, BankStatementPartitionRepository.class})
+public class BankStatementRepositoryTest {
+
+    private static final LocalDateTime DATE_TIME_FROM = LocalDateTime.of(2022, 1, 1, 0, 0);
+    private static final LocalDateTime DATE_TIME_TO = LocalDateTime.of(2022, 12, 31, 0, 0);
+
+    /**
+     * JDBC url of an existing, disposable database to run against instead of a container, for machines without
+     * Docker. Every table is cleared before each test.
+     */
+    private static final String EXTERNAL_URL = System.getProperty("test.postgres.url");
+
+    /**
+     * Started by the first test class context unless {@link #EXTERNAL_URL} is set. Without Docker the tests fail
+     * rather than being skipped.
+     */
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    @Autowired
+    private BankStatementRepository bankStatementRepository;
+
+    @Autowired
+    private BankStatementDailyBalanceRepository bankStatementDailyBalanceRepository;
+
+    @Autowired
+    private BankStatementInsertRepository bankStatementInsertRepository;
+
+    @Autowired
+    private BankStatementCopyRepository bankStatementCopyRepository;
+
+    @Autowired
+    private BankStatementPartitionRepository bankStatementPartitionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final BankStatementMapper bankStatementMapper = new BankStatementMapper();
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null) {
+            registry.add("spring.datasource.url", () -> EXTERNAL_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("test.postgres.username", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("test.postgres.password", "password"));
+            return;
+        }
+        if (!POSTGRES.isRunning()) {
+            POSTGRES.start();
+        }
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @BeforeEach
+    void setup() {
+        bankStatementRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM bank_statement_daily_balance");
+    }
+
+    @Nested
+    @DisplayName("Account balance with single currency")
+    class SingleCurrencyBalance {
+
+        @Test
+        void getAccountBalances_whenAccountHasNoBankStatements_shouldReturnEmptyList() {
+            save(new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T20:55:41"), "account3", "comment", new BigDecimal("100"), "EUR"));
+            List<AccountBalanceDto> accountBalances = getAccountBalances("account1");
+            assertEquals(0, accountBalances.size());
+        }
+
+        @Test
+        void getAccountBalances_whenAccountHasReceivedBankStatementsNoSentBankStatements_shouldReturnListOfBalances() {
+            save(new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T20:55:41"), "account1", "comment", new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-20T20:55:41"), "account1", "comment", new BigDecimal("100"), "EUR"));
+            List<AccountBalanceDto> accountBalances = getAccountBalances("account1");
+            assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("200.00"))), accountBalances);
+        }
+
+        @Test
+        void getAccountBalances_whenAccountHasSentBankStatementsAndNoReceivedBankStatements_shouldReturnListOfNegativeBalances() {
+            save(new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-20T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR"));
+            List<AccountBalanceDto> accountBalances = getAccountBalances("account1");
+            assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("-200.00"))), accountBalances);
+        }
+
+        @Test
+        void getAccountBalances_whenAccountHasSentBankStatementsAndReceivedBankStatements_shouldReturnListOfBalances() {
+            save(new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-20T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-21T20:55:41"), "account1", "comment", new BigDecimal("200"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-22T20:55:41"), "account1", "comment", new BigDecimal("200"), "EUR"));
+            List<AccountBalanceDto> accountBalances = getAccountBalances("account1");
+            assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("200.00"))), accountBalances);
+        }
+
+        @Test
+        void getAccountBalances_whenBankStatementsAreOutsideOfRange_shouldIgnoreThem() {
+            save(new BankStatement(null, "account2", parseLocalDateTime("2021-12-31T23:59:59"), "account1", "comment", new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-12-31T00:00:01"), "account1", "comment", new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-06-01T00:00:00"), "account1", "comment", new BigDecimal("100"), "EUR"));
+            List<AccountBalanceDto> accountBalances = getAccountBalances("account1");
+            assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("100.00"))), accountBalances);
+        }
+
+        @Test
+        void getAccountBalances_whenAmountsHaveFractions_shouldSumExactly() {
+            save(new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T20:55:41"), "account1", "comment", new BigDecimal("0.10"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T21:55:41"), "account1", "comment", new BigDecimal("0.20"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-20T20:55:41"), "account2", "comment", new BigDecimal("0.3"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-21T20:55:41"), "account1", "comment", new BigDecimal("0.125"), "JPY"));
+            List<AccountBalanceDto> accountBalances = getAccountBalances("account1");
+            assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("0.00")), new AccountBalanceDto("JPY", new BigDecimal("0.125"))),
+                    accountBalances);
+        }
+    }
+
+    @Nested
+    @DisplayName("Account balance with multiple currencies")
+    class MultipleCurrencyBalance {
+
+        @Test
+        void getAccountBalances_whenAccountHasSentBankStatementsWithDifferentCurrencies_shouldReturnListOfNegativeBalancesGroupedByCurrency() {
+            save(new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "USD"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR"));
+            List<AccountBalanceDto> accountBalances = getAccountBalances("account1");
+            assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("-100.00")), new AccountBalanceDto("USD", new BigDecimal("-100.00"))), accountBalances);
+        }
+
+        @Test
+        void getAccountBalances_whenAccountHasReceivedAndSentBankStatementsWithDifferentCurrencies_shouldReturnListOfBalancesGroupedByCurrency() {
+            save(new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "USD"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T20:55:41"), "account1", "comment", new BigDecimal("200"), "USD"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T20:55:41"), "account1", "comment", new BigDecimal("200"), "EUR"));
+            List<AccountBalanceDto> accountBalances = getAccountBalances("account1");
+            assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("100.00")), new AccountBalanceDto("USD", new BigDecimal("100.00"))), accountBalances);
+        }
+
+        @Test
+        void getAccountBalances_whenAccountTransfersToItself_shouldCancelOut() {
+            save(new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account1", "comment", new BigDecimal("100"), "EUR"));
+            List<AccountBalanceDto> accountBalances = getAccountBalances("account1");
+            assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("0.00"))), accountBalances);
+        }
+    }
+
+    @Nested
+    @DisplayName("Account balance over partial days")
+    class PartialDayBalance {
+
+        @Test
+        void getAccountBalances_whenRangeStartsAndEndsWithinDays_shouldCombineEdgeRowsAndWholeDays() {
+            save(new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T11:59:59"), "account1", "comment", new BigDecimal("1"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T12:00:00"), "account1", "comment", new BigDecimal("10"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-20T08:00:00"), "account2", "comment", new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-21T00:00:00"), "account1", "comment", new BigDecimal("1000"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-22T12:00:00"), "account1", "comment", new BigDecimal("10000"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-22T12:00:01"), "account1", "comment", new BigDecimal("100000"), "EUR"));
+            List<AccountBalanceDto> accountBalances = getAccountBalances("account1",
+                    parseLocalDateTime("2022-09-19T12:00:00"), parseLocalDateTime("2022-09-22T12:00:00"));
+            assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("10910.00"))), accountBalances);
+        }
+
+        @Test
+        void getAccountBalances_whenRangeIsWithinSingleDay_shouldReadOnlyEdgeRows() {
+            save(new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T09:59:59"), "account1", "comment", new BigDecimal("1"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T10:00:00"), "account1", "comment", new BigDecimal("10"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T11:00:00"), "account2", "comment", new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T12:00:01"), "account1", "comment", new BigDecimal("1000"), "EUR"));
+            List<AccountBalanceDto> accountBalances = getAccountBalances("account1",
+                    parseLocalDateTime("2022-09-19T10:00:00"), parseLocalDateTime("2022-09-19T12:00:00"));
+            assertEquals(List.of(new AccountBalanceDto("EUR", new BigDecimal("-90.00"))), accountBalances);
+        }
+    }
+
+    @Nested
+    @DisplayName("Balances of several accounts")
+    class MultipleAccountBalance {
+
+        @Test
+        void getAccountsBalances_shouldMatchBalancesOfEachAccount() {
+            save(new BankStatement(null, "account2", parseLocalDateTime("2022-09-19T11:59:59"), "account1", "comment", new BigDecimal("1"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-20T08:00:00"), "account2", "comment", new BigDecimal("100"), "USD"),
+                    new BankStatement(null, "account3", parseLocalDateTime("2022-09-21T00:00:00"), "account1", "comment", new BigDecimal("1000"), "EUR"),
+                    new BankStatement(null, "account2", parseLocalDateTime("2022-09-22T12:00:01"), "account3", "comment", new BigDecimal("10000"), "EUR"),
+                    new BankStatement(null, "account4", parseLocalDateTime("2022-09-22T12:00:01"), "account5", "comment", new BigDecimal("10"), "EUR"));
+            LocalDateTime from = parseLocalDateTime("2022-09-19T12:00:00");
+            LocalDateTime to = parseLocalDateTime("2022-09-22T18:00:00");
+            List<String> accountNumbers = List.of("account1", "account2", "account3", "account6");
+            Map<String, List<AccountBalanceDto>> accountsBalances = new HashMap<>();
+            bankStatementRepository.getAccountsBalances(accountNumbers, from, to)
+                    .forEach(accountBalance -> accountsBalances.computeIfAbsent(accountBalance.getAccountNumber(), accountNumber -> new ArrayList<>())
+                            .add(bankStatementMapper.toDto(accountBalance)));
+            for (String accountNumber : accountNumbers) {
+                assertEquals(getAccountBalances(accountNumber, from, to), accountsBalances.getOrDefault(accountNumber, List.of()), accountNumber);
+            }
+            assertFalse(accountsBalances.containsKey("account6"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Duplicate bank statements")
+    class DuplicateBankStatements {
+
+        @Test
+        void insertNew_whenRowsAreAlreadyStored_shouldInsertOnlyNewRows() {
+            BankStatement stored = new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:00"), "account2", null, new BigDecimal("100.50"), "EUR");
+            save(stored);
+            List<BankStatement> inserted = bankStatementInsertRepository.insertNew(List.of(
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:00"), "account2", null, new BigDecimal("100.5000"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:00"), "account2", "comment", new BigDecimal("100.50"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:00"), "account2", "comment", new BigDecimal("100.50"), "EUR")));
+            assertEquals(1, inserted.size());
+            assertEquals("comment", inserted.get(0).getComment());
+            assertEquals(2, bankStatementRepository.count());
+        }
+
+        @Test
+        void copy_whenRowsAreAlreadyStored_shouldInsertOnlyNewRows() {
+            save(new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR"));
+            List<BankStatement> copied = bankStatementCopyRepository.copy(List.of(
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-20T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR")));
+            assertEquals(List.of(parseLocalDateTime("2022-09-20T20:55:41")),
+                    copied.stream().map(BankStatement::getOperationDate).toList());
+            assertEquals(2, bankStatementRepository.count());
+        }
+
+        @Test
+        void copy_whenTextIsEmptyQuotedOrNull_shouldStoreItUnchanged() {
+            List<BankStatement> copied = bankStatementCopyRepository.copy(List.of(
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", null, new BigDecimal("-0.5"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:42"), "account2", "", new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:43"), "account2", "\"ąčę\", \nline", new BigDecimal("1E+3"), "EUR")));
+            assertEquals(3, copied.size());
+            List<BankStatement> stored = bankStatementRepository.findPage(BankStatementFilter.builder().build(), null, 3);
+            assertNull(stored.get(0).getComment());
+            assertEquals(0, new BigDecimal("-0.5").compareTo(stored.get(0).getAmount()));
+            assertEquals("", stored.get(1).getComment());
+            assertEquals("\"ąčę\", \nline", stored.get(2).getComment());
+            assertEquals(0, new BigDecimal("1000").compareTo(stored.get(2).getAmount()));
+            Integer mismatches = jdbcTemplate.queryForObject("SELECT count(*) FROM bank_statement " +
+                    "WHERE row_hash <> sha256(convert_to(concat_ws(chr(31), account_number, " +
+                    "to_char(operation_date, 'YYYY-MM-DD\"T\"HH24:MI:SS'), beneficiary, coalesce(comment, ''), " +
+                    "trim_scale(amount)::TEXT, currency), 'UTF8'))", Integer.class);
+            assertEquals(0, mismatches);
+        }
+
+        @Test
+        void insertNew_shouldStoreRowHashMatchingMigrationBackfill() {
+            save(new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:00"), "account2", null, new BigDecimal("100.50"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "ąčę", new BigDecimal("-7"), "EUR"));
+            Integer mismatches = jdbcTemplate.queryForObject("SELECT count(*) FROM bank_statement " +
+                    "WHERE row_hash <> sha256(convert_to(concat_ws(chr(31), account_number, " +
+                    "to_char(operation_date, 'YYYY-MM-DD\"T\"HH24:MI:SS'), beneficiary, coalesce(comment, ''), " +
+                    "trim_scale(amount)::TEXT, currency), 'UTF8'))", Integer.class);
+            assertEquals(0, mismatches);
+        }
+    }
+
+    @Nested
+    @DisplayName("Pages")
+    class Pages {
+
+        @Test
+        void findPage_whenRowsShareOperationDate_shouldReadEachRowOnce() {
+            for (int i = 0; i < 7; i++) {
+                save(new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41").plusDays(i / 3), "account2", "comment" + i, new BigDecimal("100"), "EUR"));
+            }
+            List<BankStatement> read = new ArrayList<>();
+            BankStatementKey after = null;
+            List<BankStatement> page;
+            do {
+                page = bankStatementRepository.findPage(BankStatementFilter.builder().build(), after, 2);
+                read.addAll(page);
+                if (!page.isEmpty()) {
+                    BankStatement last = page.get(page.size() - 1);
+                    after = new BankStatementKey(last.getOperationDate(), last.getId());
+                }
+            } while (!page.isEmpty());
+            assertEquals(7, read.size());
+            assertEquals(7, read.stream().map(BankStatement::getId).distinct().count());
+            assertEquals(read.stream().sorted(Comparator.comparing(BankStatement::getOperationDate)
+                    .thenComparing(BankStatement::getId)).toList(), read);
+        }
+
+        @Test
+        void findPage_whenFilterIsGiven_shouldReturnOnlyMatchingRows() {
+            save(new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", null, new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", null, new BigDecimal("100"), "USD"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2022-10-19T20:55:41"), "account2", null, new BigDecimal("100"), "EUR"),
+                    new BankStatement(null, "account3", parseLocalDateTime("2022-09-19T20:55:41"), "account2", null, new BigDecimal("100"), "EUR"));
+            BankStatementFilter filter = BankStatementFilter.builder()
+                    .accountNumber("account1")
+                    .beneficiary("account2")
+                    .from(parseLocalDateTime("2022-09-01T00:00:00"))
+                    .to(parseLocalDateTime("2022-09-30T00:00:00"))
+                    .currency("EUR")
+                    .build();
+            List<BankStatement> page = bankStatementRepository.findPage(filter, null, 10);
+            assertEquals(1, page.size());
+            assertEquals("account1", page.get(0).getAccountNumber());
+            assertEquals("EUR", page.get(0).getCurrency());
+        }
+    }
+
+    @Nested
+    @DisplayName("Reactive export stream")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    class ReactiveStream {
+
+        @Autowired
+        private DataSourceProperties dataSourceProperties;
+
+        @Test
+        void streamAllByOperationDateIsBetween_whenRowsSpanSeveralFetches_shouldReturnRowsOfTheRange() {
+            for (int i = 0; i < 5; i++) {
+                save(new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41").plusDays(i), "account2", "comment" + i, new BigDecimal("100.5"), "EUR"));
+            }
+            ExportProperties exportProperties = new ExportProperties();
+            exportProperties.setReactiveFetchSize(2);
+            BankStatementReactiveRepository bankStatementReactiveRepository =
+                    new BankStatementReactiveRepository(dataSourceProperties, exportProperties);
+            try {
+                List<BankStatement> bankStatements = bankStatementReactiveRepository
+                        .streamAllByOperationDateIsBetween(parseLocalDateTime("2022-09-20T00:00:00"), parseLocalDateTime("2022-09-23T00:00:00"))
+                        .collectList()
+                        .block();
+                assertEquals(List.of("comment1", "comment2", "comment3"),
+                        bankStatements.stream().map(BankStatement::getComment).sorted().toList());
+                assertEquals(new BigDecimal("100.5000"), bankStatements.get(0).getAmount());
+            } finally {
+                bankStatementReactiveRepository.close();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Partition archiving")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    class PartitionArchiving {
+
+        @Test
+        void archive_whenPartitionIsDetached_shouldDropItsDailyBalancesAndNotAttachItAgain() {
+            YearMonth month = YearMonth.of(2019, 3);
+            save(new BankStatement(null, "account1", parseLocalDateTime("2019-03-05T10:00:00"), "account2", null, new BigDecimal("10"), "EUR"),
+                    new BankStatement(null, "account1", parseLocalDateTime("2019-04-01T00:00:00"), "account2", null, new BigDecimal("5"), "EUR"));
+            bankStatementPartitionRepository.detach(month);
+            String archiveName = bankStatementPartitionRepository.archive(month);
+            try {
+                assertTrue(archiveName.startsWith("bank_statement_2019_03_archived_"), archiveName);
+                assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM " + archiveName, Long.class));
+                assertEquals(List.of(LocalDate.of(2019, 4, 1)), jdbcTemplate.queryForList(
+                        "SELECT DISTINCT day FROM bank_statement_daily_balance ORDER BY day", LocalDate.class));
+                bankStatementPartitionRepository.create(month);
+                assertTrue(bankStatementPartitionRepository.findPartitions().contains(month));
+                assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM bank_statement_2019_03", Long.class));
+                assertNull(bankStatementPartitionRepository.archive(month));
+            } finally {
+                jdbcTemplate.execute("DROP TABLE " + archiveName);
+                bankStatementRepository.deleteAll();
+                jdbcTemplate.update("DELETE FROM bank_statement_daily_balance");
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Query plans")
+    class QueryPlans {
+
+        @BeforeEach
+        void setup() {
+            for (YearMonth month = YearMonth.of(2022, 1); month.isBefore(YearMonth.of(2023, 3)); month = month.plusMonths(1)) {
+                bankStatementPartitionRepository.create(month);
+            }
+            jdbcTemplate.update("INSERT INTO bank_statement " +
+                    "SELECT nextval('bank_statement_seq'), 'account' || i % 500, " +
+                    "timestamp '2022-01-01' + i * interval '30 minutes', 'account' || (i + 7) % 500, NULL, i % 100, " +
+                    "CASE WHEN i % 3 = 0 THEN 'USD' ELSE 'EUR' END, sha256(int4send(i)) FROM generate_series(1, 20000) i");
+            jdbcTemplate.update("INSERT INTO bank_statement_daily_balance " +
+                    "SELECT 'account' || a, date '2022-01-01' + d, 'EUR', 1 " +
+                    "FROM generate_series(0, 499) a, generate_series(0, 364) d");
+            jdbcTemplate.execute("ANALYZE bank_statement");
+            jdbcTemplate.execute("ANALYZE bank_statement_daily_balance");
+        }
+
+        @Test
+        void getAccountBalances_shouldScanDailyBalanceAndEdgeIndexes() {
+            String plan = explain(BankStatementRepository.ACCOUNT_BALANCES_SQL, Map.of(
+                    "accountNumber", "account1", "from", DATE_TIME_FROM.plusHours(12), "to", DATE_TIME_TO.plusHours(12),
+                    "wholeDaysFrom", DATE_TIME_FROM.toLocalDate().plusDays(1), "wholeDaysTo", DATE_TIME_TO.toLocalDate()));
+            assertTrue(plan.contains("bank_statement_daily_balance_pkey"), plan);
+            assertTrue(plan.contains("bank_statement_2022_01_account_number_operation_date"), plan);
+            assertTrue(plan.contains("bank_statement_2022_12_beneficiary_operation_date"), plan);
+            assertFalse(plan.contains("bank_statement_2022_06"), plan);
+        }
+
+        @Test
+        void getAccountsBalances_shouldScanDailyBalanceAndEdgeIndexes() {
+            String plan = explain(BankStatementRepository.ACCOUNTS_BALANCES_SQL, Map.of(
+                    "accountNumbers", List.of("account1", "account2", "account3"), "from", DATE_TIME_FROM.plusHours(12),
+                    "to", DATE_TIME_TO.plusHours(12), "wholeDaysFrom", DATE_TIME_FROM.toLocalDate().plusDays(1),
+                    "wholeDaysTo", DATE_TIME_TO.toLocalDate()));
+            assertTrue(plan.contains("bank_statement_daily_balance_pkey"), plan);
+            assertTrue(plan.contains("bank_statement_2022_01_account_number_operation_date"), plan);
+            assertTrue(plan.contains("bank_statement_2022_12_beneficiary_operation_date"), plan);
+            assertFalse(plan.contains("bank_statement_2022_06"), plan);
+        }
+
+        @Test
+        void streamAllByOperationDateIsBetween_shouldScanOnlyPartitionsOfRange() {
+            String plan = explain("SELECT * FROM bank_statement WHERE operation_date BETWEEN :from AND :to", Map.of(
+                    "from", LocalDateTime.of(2022, 3, 1, 0, 0), "to", LocalDateTime.of(2022, 3, 2, 0, 0)));
+            assertTrue(plan.contains("bank_statement_2022_03_operation_date_idx"), plan);
+            assertFalse(plan.contains("bank_statement_2022_02"), plan);
+            assertFalse(plan.contains("bank_statement_2022_04"), plan);
+        }
+
+        private String explain(String sql, Map<String, Object> parameters) {
+            return String.join("\n", new NamedParameterJdbcTemplate(jdbcTemplate)
+                    .queryForList("EXPLAIN " + sql, parameters, String.class));
+        }
+    }
+
+    private List<AccountBalanceDto> getAccountBalances(String accountNumber) {
+        return getAccountBalances(accountNumber, DATE_TIME_FROM, DATE_TIME_TO);
+    }
+
+    private List<AccountBalanceDto> getAccountBalances(String accountNumber, LocalDateTime from, LocalDateTime to) {
+        return bankStatementRepository.getAccountBalances(accountNumber, from, to).stream()
+                .map(bankStatementMapper::toDto)
+                .toList();
+    }
+
+    private void save(BankStatement... bankStatements) {
+        Arrays.stream(bankStatements)
+                .map(bankStatement -> YearMonth.from(bankStatement.getOperationDate()))
+                .distinct()
+                .forEach(bankStatementPartitionRepository::create);
+        bankStatementDailyBalanceRepository.add(bankStatementInsertRepository.insertNew(List.of(bankStatements)));
+    }
+
+    private LocalDateTime parseLocalDateTime(String dateTime) {
+        return LocalDateTime.parse(dateTime, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+}
@@ -1,53 +1,119 @@
 package com.inventi.bankstatementsapi;
 
-import com.inventi.bankstatementsapi.csv.BankStatementExportCsvBean;
-import com.inventi.bankstatementsapi.csv.BankStatementImportCsvBean;
-import com.inventi.bankstatementsapi.dto.AccountBalanceDto;
+import com.inventi.bankstatementsapi.config.ExportProperties;
+import com.inventi.bankstatementsapi.config.ImportProperties;
+import com.inventi.bankstatementsapi.csv.Compression;
+import com.inventi.bankstatementsapi.csv.RejectCounts;
+import com.inventi.bankstatementsapi.csv.RejectReason;
+import com.inventi.bankstatementsapi.csv.RejectedRows;
+import com.inventi.bankstatementsapi.csv.RejectedRowsCsvWriter;
 import com.inventi.bankstatementsapi.dto.BankStatementDto;
+import com.inventi.bankstatementsapi.dto.BankStatementPageDto;
+import com.inventi.bankstatementsapi.dto.ExportFormat;
+import com.inventi.bankstatementsapi.dto.ImportResultMode;
+import com.inventi.bankstatementsapi.dto.ImportSummaryDto;
 import com.inventi.bankstatementsapi.entity.BankStatement;
-import com.inventi.bankstatementsapi.mapper.BankStatementMapper;
+import com.inventi.bankstatementsapi.exception.InvalidPageTokenException;
+import com.inventi.bankstatementsapi.repository.BankStatementFilter;
+import com.inventi.bankstatementsapi.repository.BankStatementImportFileRepository;
+import com.inventi.bankstatementsapi.repository.BankStatementKey;
 import com.inventi.bankstatementsapi.repository.BankStatementRepository;
+import com.inventi.bankstatementsapi.service.BankStatementChunkWriter;
+import com.inventi.bankstatementsapi.service.BankStatementMetrics;
+import com.inventi.bankstatementsapi.service.BankStatementPartitionService;
 import com.inventi.bankstatementsapi.service.BankStatementService;
+import com.inventi.bankstatementsapi.service.CsvImportPipeline;
+import com.inventi.bankstatementsapi.service.CsvImportPipeline.ParsedChunk;
 import com.inventi.bankstatementsapi.service.CsvService;
+import com.inventi.bankstatementsapi.service.ImportStatistics;
+import com.inventi.bankstatementsapi.service.RejectedRowLogger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.commons.lang3.StringUtils;
-import org.junit.jupiter.api.DisplayName;
-import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class BankStatementServiceTest {
 
     private static final String CSV_CONTENT_TYPE = "text/csv";
-    public static final LocalDateTime DATE_TIME_FROM = LocalDateTime.of(2022, 1, 1, 0, 0);
-    public static final LocalDateTime DATE_TIME_TO = LocalDateTime.of(2022, 12, 31, 0, 0);
     public static final LocalDate DATE_FROM = LocalDate.of(2022, 1, 1);
     public static final LocalDate DATE_TO = LocalDate.of(2022, 12, 31);
-    private final BankStatementMapper bankStatementMapper = new BankStatementMapper();
 
     @Mock
     private BankStatementRepository bankStatementRepository;
 
+    @Mock
+    private BankStatementChunkWriter bankStatementChunkWriter;
+
     @Mock
     private CsvService csvService;
 
+    @Mock
+    private CsvImportPipeline csvImportPipeline;
+
+    @Spy
+    private ImportProperties importProperties = new ImportProperties();
+
+    @Spy
+    private ExportProperties exportProperties = new ExportProperties();
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private BankStatementImportFileRepository bankStatementImportFileRepository;
+
+    @Mock
+    private BankStatementPartitionService bankStatementPartitionService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private BankStatementMetrics bankStatementMetrics = new BankStatementMetrics(meterRegistry);
+
+    @Spy
+    private RejectedRowLogger rejectedRowLogger = new RejectedRowLogger(importProperties);
+
     private final MultipartFile multipartFile = mock(MultipartFile.class);
 
     @InjectMocks
@@ -57,193 +123,309 @@ public class BankStatementServiceTest {
     @Test
     void importFromCsv_whenFileContainsCsvData_shouldReturnValidBankStatements() throws IOException {
         byte[] bytes = {0};
-        List<BankStatementImportCsvBean> parsedBankStatements = List.of(
-                new BankStatementImportCsvBean("account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", 500D, "EUR"),
-                new BankStatementImportCsvBean(null, parseLocalDateTime("2022-09-20T20:55:41"), "account3", StringUtils.EMPTY, 200D, "EUR"),
-                new BankStatementImportCsvBean("account2", parseLocalDateTime("2022-09-21T20:55:41"), null, StringUtils.EMPTY, 300D, "EUR"),
-                new BankStatementImportCsvBean("account3", parseLocalDateTime("2022-09-22T20:55:41"), "account4", StringUtils.EMPTY, 300D, "USD")
+        List<BankStatement> parsedBankStatements = List.of(
+                new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("500"), "EUR"),
+                new BankStatement(null, null, parseLocalDateTime("2022-09-20T20:55:41"), "account3", StringUtils.EMPTY, new BigDecimal("200"), "EUR"),
+                new BankStatement(null, "account2", parseLocalDateTime("2022-09-21T20:55:41"), null, StringUtils.EMPTY, new BigDecimal("300"), "EUR"),
+                new BankStatement(null, "account3", parseLocalDateTime("2022-09-22T20:55:41"), "account4", StringUtils.EMPTY, new BigDecimal("300"), "USD")
         );
         List<BankStatement> validBankStatements = parsedBankStatements.stream()
-                .map(bankStatementMapper::toEntity)
                 .filter(BankStatement::isValid)
                 .toList();
-        when(csvService.readBeansFromCsv(multipartFile, BankStatementImportCsvBean.class)).thenReturn(parsedBankStatements);
-        when(bankStatementRepository.saveAll(validBankStatements)).thenReturn(validBankStatements);
+        mockParsedChunks(parsedBankStatements);
+        when(bankStatementChunkWriter.save(validBankStatements)).thenReturn(validBankStatements);
         mockCsvFile(bytes);
-        List<BankStatementDto> bankStatementDtos = bankStatementService.importFromCsv(multipartFile);
+        List<BankStatementDto> bankStatementDtos = bankStatementService.importFromCsv(multipartFile, Compression.NONE, ImportResultMode.ROWS).bankStatements();
         assertEquals(2, bankStatementDtos.size());
         assertEquals(parsedBankStatements.get(0).getAccountNumber(), bankStatementDtos.get(0).accountNumber());
-        assertEquals(parsedBankStatements.get(3).getAmount(), bankStatementDtos.get(1).amount());
+        assertEquals(new BigDecimal("300.00"), bankStatementDtos.get(1).amount());
     }
 
     @Test
     void importFromCsv_whenFileContainsOnlyHeader_shouldReturnEmptyList() throws IOException {
         byte[] bytes = {0};
         mockCsvFile(bytes);
-        when(csvService.readBeansFromCsv(multipartFile, BankStatementImportCsvBean.class)).thenReturn(Collections.emptyList());
-        List<BankStatementDto> bankStatementDtos = bankStatementService.importFromCsv(multipartFile);
+        mockParsedChunks();
+        List<BankStatementDto> bankStatementDtos = bankStatementService.importFromCsv(multipartFile, Compression.NONE, ImportResultMode.ROWS).bankStatements();
         assertEquals(0, bankStatementDtos.size());
     }
 
     @Test
-    void exportToCsv_whenBankStatementsExist_shouldWriteToFile() {
-        List<BankStatement> bankStatements = List.of(
-                new BankStatement(1L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", 100D, "EUR"),
-                new BankStatement(2L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", 100D, "EUR")
+    void importFromCsv_whenFileContainsSeveralChunks_shouldSaveEachChunkSeparately() throws IOException {
+        byte[] bytes = {0};
+        List<BankStatement> firstChunk = List.of(
+                new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("500"), "EUR"),
+                new BankStatement(null, "account2", parseLocalDateTime("2022-09-20T20:55:41"), "account3", StringUtils.EMPTY, new BigDecimal("200"), "EUR")
         );
-        when(bankStatementRepository.findAllByOperationDateIsBetween(any(), any())).thenReturn(bankStatements);
-        List<BankStatementExportCsvBean> bankStatementExportCsvBeans = bankStatements.stream()
-                .map(bankStatementMapper::toExportCsvBean)
-                .toList();
-        PrintWriter writer = mock(PrintWriter.class);
-        bankStatementService.exportToCsv(DATE_FROM, DATE_TO, writer);
-        verify(csvService).writeBeansToCsv(bankStatementExportCsvBeans, writer);
+        List<BankStatement> secondChunk = List.of(
+                new BankStatement(null, "account3", parseLocalDateTime("2022-09-22T20:55:41"), "account4", StringUtils.EMPTY, new BigDecimal("300"), "USD")
+        );
+        mockParsedChunks(firstChunk, secondChunk);
+        when(bankStatementChunkWriter.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        mockCsvFile(bytes);
+        List<BankStatementDto> bankStatementDtos = bankStatementService.importFromCsv(multipartFile, Compression.NONE, ImportResultMode.ROWS).bankStatements();
+        assertEquals(3, bankStatementDtos.size());
+        verify(bankStatementChunkWriter, times(2)).save(any());
     }
 
     @Test
-    void exportToCsv_whenBankStatementsAreEmpty_shouldWriteEmptyFile() {
-        List<BankStatement> bankStatements = new ArrayList<>();
-        when(bankStatementRepository.findAllByOperationDateIsBetween(any(), any())).thenReturn(bankStatements);
-        List<BankStatementExportCsvBean> emptyBankStatementExportCsvBeans = bankStatements.stream()
-                .map(bankStatementMapper::toExportCsvBean)
-                .toList();
-        PrintWriter writer = mock(PrintWriter.class);
-        bankStatementService.exportToCsv(DATE_FROM, DATE_TO, writer);
-        verify(csvService).writeBeansToCsv(emptyBankStatementExportCsvBeans, writer);
-    }
-
-    @Nested
-    @DisplayName("Account balance with single currency")
-    class SingleCurrencyBalance {
-
-        @Test
-        void getAccountBalance_whenAccountHasNoBankStatements_shouldReturnEmptyList() {
-            when(bankStatementRepository.findAllByAccountNumberAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO))
-                    .thenReturn(Collections.emptyList());
-            when(bankStatementRepository.findAllByBeneficiaryAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO))
-                    .thenReturn(Collections.emptyList());
-            List<AccountBalanceDto> accountBalances = bankStatementService.getAccountBalances("account1", DATE_FROM, DATE_TO);
-            assertEquals(0, accountBalances.size());
-        }
+    void importFromCsv_inSummaryMode_whenFileIsBelowCopyThreshold_shouldSaveWithJpaAndReturnCounts() throws IOException {
+        byte[] bytes = {0};
+        List<BankStatement> parsedBankStatements = List.of(
+                new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("500"), "EUR"),
+                new BankStatement(null, null, parseLocalDateTime("2022-09-20T20:55:41"), "account3", StringUtils.EMPTY, new BigDecimal("200"), "EUR"),
+                new BankStatement(null, "account3", parseLocalDateTime("2022-09-22T20:55:41"), "account4", StringUtils.EMPTY, new BigDecimal("300"), "USD")
+        );
+        mockParsedChunks(parsedBankStatements);
+        when(bankStatementChunkWriter.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        mockCsvFile(bytes);
+        ImportSummaryDto importSummary = bankStatementService.importFromCsv(multipartFile, Compression.NONE, ImportResultMode.SUMMARY).summary();
+        assertEquals(2, importSummary.acceptedCount());
+        assertEquals(1, importSummary.rejectedCount());
+        assertEquals(0, importSummary.duplicateCount());
+        assertEquals(parseLocalDateTime("2022-09-19T20:55:41"), importSummary.firstOperationDate());
+        assertEquals(parseLocalDateTime("2022-09-22T20:55:41"), importSummary.lastOperationDate());
+        verify(bankStatementChunkWriter).save(any());
+        verify(bankStatementChunkWriter, never()).copy(any());
+    }
 
-        @Test
-        void getAccountBalance_whenAccountHasReceivedBankStatementsNoSentBankStatements_shouldReturnListOfBalances() {
-            when(bankStatementRepository.findAllByAccountNumberAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO))
-                    .thenReturn(Collections.emptyList());
-            when(bankStatementRepository.findAllByBeneficiaryAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO)).thenReturn(
-                    List.of(
-                            new BankStatement(1L, "account2", parseLocalDateTime("2022-09-19T20:55:41"), "account1", "comment", 100D, "EUR"),
-                            new BankStatement(2L, "account2", parseLocalDateTime("2022-09-20T20:55:41"), "account1", "comment", 100D, "EUR")
-                    )
-            );
-            List<AccountBalanceDto> accountBalances = bankStatementService.getAccountBalances("account1", DATE_FROM, DATE_TO);
-            assertEquals(1, accountBalances.size());
-            assertEquals(200D, accountBalances.get(0).amount());
-            assertEquals("EUR", accountBalances.get(0).currency());
-        }
+    @Test
+    void importFromCsv_inSummaryMode_whenRowsAreRejected_shouldCountThemByReason() throws IOException {
+        byte[] bytes = {0};
+        List<BankStatement> parsedBankStatements = List.of(
+                new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("500"), "EUR"),
+                new BankStatement(null, null, parseLocalDateTime("2022-09-20T20:55:41"), "account3", StringUtils.EMPTY, new BigDecimal("200"), "EUR"),
+                new BankStatement(null, "account3", parseLocalDateTime("2022-09-22T20:55:41"), "account4", StringUtils.EMPTY, new BigDecimal("0.00001"), "USD")
+        );
+        mockParsedChunks(parsedBankStatements);
+        when(bankStatementChunkWriter.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        mockCsvFile(bytes);
+        bankStatementService.importFromCsv(multipartFile, Compression.NONE, ImportResultMode.SUMMARY).summary();
+        assertEquals(1, meterRegistry.get(BankStatementMetrics.IMPORT_ROWS).tag("outcome", "accepted").counter().count());
+        assertEquals(2, meterRegistry.get(BankStatementMetrics.IMPORT_ROWS).tag("outcome", "rejected").counter().count());
+        assertEquals(1, meterRegistry.get(BankStatementMetrics.IMPORT_REJECTED_ROWS).tag("reason", "missing_value").counter().count());
+        assertEquals(1, meterRegistry.get(BankStatementMetrics.IMPORT_REJECTED_ROWS).tag("reason", "invalid_amount").counter().count());
+        assertEquals(1, meterRegistry.get(BankStatementMetrics.IMPORT_STAGE).tag("stage", "insert").timer().count());
+    }
 
-        @Test
-        void getAccountBalance_whenAccountHasSentBankStatementsAndNoReceivedBankStatements_shouldReturnListOfNegativeBalances() {
-            when(bankStatementRepository.findAllByAccountNumberAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO)).thenReturn(
-                    List.of(
-                            new BankStatement(1L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", 100D, "EUR"),
-                            new BankStatement(2L, "account1", parseLocalDateTime("2022-09-20T20:55:41"), "account2", "comment", 100D, "EUR")
-                    )
-            );
-            when(bankStatementRepository.findAllByBeneficiaryAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO))
-                    .thenReturn(Collections.emptyList());
-            List<AccountBalanceDto> accountBalances = bankStatementService.getAccountBalances("account1", DATE_FROM, DATE_TO);
-            assertEquals(1, accountBalances.size());
-            assertEquals(-200D, accountBalances.get(0).amount());
-            assertEquals("EUR", accountBalances.get(0).currency());
+    @Test
+    void importBankStatements_whenParserAndValidationRejectRows_shouldWriteEveryRejectedRowInRowOrder() throws IOException {
+        List<BankStatement> parsedBankStatements = List.of(
+                new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("500"), "EUR"),
+                new BankStatement(null, null, parseLocalDateTime("2022-09-20T20:55:41"), "account3", StringUtils.EMPTY, new BigDecimal("200"), "EUR"),
+                new BankStatement(null, "account3", parseLocalDateTime("2022-09-22T20:55:41"), "account4", StringUtils.EMPTY, new BigDecimal("0.00001"), "USD")
+        );
+        RejectCounts skippedCounts = new RejectCounts();
+        RejectedRows skippedRows = new RejectedRows();
+        skippedCounts.add(RejectReason.INVALID_DATE);
+        skippedRows.add(3, RejectReason.INVALID_DATE);
+        skippedCounts.add(RejectReason.COLUMN_COUNT);
+        skippedRows.add(6, RejectReason.COLUMN_COUNT);
+        doAnswer(invocation -> {
+            BiFunction<List<BankStatement>, long[], Object> chunkProcessor = invocation.getArgument(2);
+            Consumer<ParsedChunk<Object>> chunkConsumer = invocation.getArgument(3);
+            chunkConsumer.accept(new ParsedChunk<>(chunkProcessor.apply(parsedBankStatements, new long[]{2, 4, 5}),
+                    skippedCounts, skippedRows, 0));
+            return null;
+        }).when(csvImportPipeline).importBankStatements(any(), anyInt(), any(), any());
+        when(bankStatementChunkWriter.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        ImportStatistics statistics = new ImportStatistics();
+        ByteArrayOutputStream rejects = new ByteArrayOutputStream();
+        try (RejectedRowsCsvWriter rejectsWriter = new RejectedRowsCsvWriter(rejects)) {
+            bankStatementService.importBankStatements(new ByteArrayResource(new byte[]{0}), "file.csv", 1, statistics,
+                    rejectsWriter);
         }
+        assertEquals("rowNumber,reason\n3,invalid_date\n4,missing_value\n5,invalid_amount\n6,column_count\n",
+                rejects.toString(StandardCharsets.US_ASCII));
+        assertEquals(4, statistics.getRejectedCount());
+    }
 
-        @Test
-        void getAccountBalance_whenAccountHasSentBankStatementsAndReceivedBankStatements_shouldReturnListOfBalances() {
-            when(bankStatementRepository.findAllByAccountNumberAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO)).thenReturn(
-                    List.of(
-                            new BankStatement(1L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", 100D, "EUR"),
-                            new BankStatement(2L, "account1", parseLocalDateTime("2022-09-20T20:55:41"), "account2", "comment", 100D, "EUR")
-                    )
-            );
-            when(bankStatementRepository.findAllByBeneficiaryAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO)).thenReturn(
-                    List.of(
-                            new BankStatement(3L, "account2", parseLocalDateTime("2022-09-21T20:55:41"), "account1", "comment", 200D, "EUR"),
-                            new BankStatement(4L, "account2", parseLocalDateTime("2022-09-22T20:55:41"), "account1", "comment", 200D, "EUR")
-                    )
-            );
-            List<AccountBalanceDto> accountBalances = bankStatementService.getAccountBalances("account1", DATE_FROM, DATE_TO);
-            assertEquals(1, accountBalances.size());
-            assertEquals(200D, accountBalances.get(0).amount());
-            assertEquals("EUR", accountBalances.get(0).currency());
-        }
+    @Test
+    void importFromCsv_inSummaryMode_whenFileIsAboveCopyThreshold_shouldCopyRows() throws IOException {
+        byte[] bytes = {0};
+        List<BankStatement> parsedBankStatements = List.of(
+                new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("500"), "EUR"),
+                new BankStatement(null, "account3", parseLocalDateTime("2022-09-22T20:55:41"), "account4", StringUtils.EMPTY, new BigDecimal("300"), "USD")
+        );
+        importProperties.setCopyThreshold(DataSize.ofBytes(0));
+        mockParsedChunks(parsedBankStatements);
+        when(bankStatementChunkWriter.copy(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        mockCsvFile(bytes);
+        ImportSummaryDto importSummary = bankStatementService.importFromCsv(multipartFile, Compression.NONE, ImportResultMode.SUMMARY).summary();
+        assertEquals(2, importSummary.acceptedCount());
+        assertEquals(0, importSummary.rejectedCount());
+        verify(bankStatementChunkWriter).copy(any());
+        verify(bankStatementChunkWriter, never()).save(any());
+    }
 
+    @Test
+    void importFromCsv_inSummaryMode_whenRowsAreAlreadyStored_shouldCountThemAsDuplicates() throws IOException {
+        byte[] bytes = {0};
+        List<BankStatement> parsedBankStatements = List.of(
+                new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("500"), "EUR"),
+                new BankStatement(null, "account3", parseLocalDateTime("2022-09-22T20:55:41"), "account4", StringUtils.EMPTY, new BigDecimal("300"), "USD")
+        );
+        mockParsedChunks(parsedBankStatements);
+        when(bankStatementChunkWriter.save(any())).thenAnswer(invocation -> List.of(invocation.<List<BankStatement>>getArgument(0).get(1)));
+        mockCsvFile(bytes);
+        when(multipartFile.getOriginalFilename()).thenReturn("BankStatements.csv");
+        ImportSummaryDto importSummary = bankStatementService.importFromCsv(multipartFile, Compression.NONE, ImportResultMode.SUMMARY).summary();
+        assertEquals(1, importSummary.acceptedCount());
+        assertEquals(1, importSummary.duplicateCount());
+        verify(bankStatementImportFileRepository).save(any(), eq("BankStatements.csv"), eq(2L));
     }
 
-    @Nested
-    @DisplayName("Account balance with multiple currencies")
-    class MultipleCurrencyBalance {
-
-        @Test
-        void getAccountBalance_whenAccountHasSentBankStatementsWithDifferentCurrenciesAndNoReceivedBankStatements_shouldReturnListOfNegativeBalancesGroupedByCurrency() {
-            when(bankStatementRepository.findAllByAccountNumberAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO))
-                    .thenReturn(List.of(
-                                    new BankStatement(1L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", 100D, "USD"),
-                                    new BankStatement(2L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", 100D, "EUR")
-                            )
-                    );
-            when(bankStatementRepository.findAllByBeneficiaryAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO)).thenReturn(
-                    Collections.emptyList()
-            );
-            List<AccountBalanceDto> accountBalances = bankStatementService.getAccountBalances("account1", DATE_FROM, DATE_TO);
-            assertEquals(2, accountBalances.size());
-            assertEquals(-100D, accountBalances.get(0).amount());
-            assertEquals("EUR", accountBalances.get(0).currency());
-            assertEquals(-100D, accountBalances.get(1).amount());
-            assertEquals("USD", accountBalances.get(1).currency());
-        }
+    @Test
+    void importFromCsv_inSummaryMode_whenFileWasAlreadyImported_shouldSkipParsing() throws IOException {
+        byte[] bytes = {0};
+        mockCsvFile(bytes);
+        when(bankStatementImportFileRepository.findRowCount(any())).thenReturn(OptionalLong.of(5));
+        ImportSummaryDto importSummary = bankStatementService.importFromCsv(multipartFile, Compression.NONE, ImportResultMode.SUMMARY).summary();
+        assertEquals(0, importSummary.acceptedCount());
+        assertEquals(5, importSummary.duplicateCount());
+        verifyNoInteractions(csvImportPipeline, bankStatementChunkWriter);
+        verify(bankStatementImportFileRepository, never()).save(any(), any(), anyLong());
+    }
 
-        @Test
-        void getAccountBalance_whenAccountHasReceivedBankStatementsWithDifferentCurrenciesAndNoSentBankStatements_shouldReturnListOfBalancesGroupedByCurrency() {
-            when(bankStatementRepository.findAllByAccountNumberAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO))
-                    .thenReturn(Collections.emptyList());
-            when(bankStatementRepository.findAllByBeneficiaryAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO))
-                    .thenReturn(List.of(
-                            new BankStatement(1L, "account2", parseLocalDateTime("2022-09-19T20:55:41"), "account1", "comment", 100D, "USD"),
-                            new BankStatement(2L, "account2", parseLocalDateTime("2022-09-19T20:55:41"), "account1", "comment", 100D, "EUR")
-                    ));
-            List<AccountBalanceDto> accountBalances = bankStatementService.getAccountBalances("account1", DATE_FROM, DATE_TO);
-            assertEquals(2, accountBalances.size());
-            assertEquals(100D, accountBalances.get(0).amount());
-            assertEquals("EUR", accountBalances.get(0).currency());
-            assertEquals(100D, accountBalances.get(1).amount());
-            assertEquals("USD", accountBalances.get(1).currency());
-        }
+    @Test
+    void importFromCsv_inSummaryMode_whenUploadIsUncompressed_shouldImportSpooledFileAndDeleteIt(@TempDir Path spoolDirectory)
+            throws IOException {
+        importProperties.setSpoolDirectory(spoolDirectory);
+        mockCsvFile(new byte[]{0});
+        List<Path> importedFiles = new ArrayList<>();
+        doAnswer(invocation -> importedFiles.add(invocation.<FileSystemResource>getArgument(0).getFile().toPath()))
+                .when(csvImportPipeline).importBankStatements(any(FileSystemResource.class), anyInt(), any(), any());
+        bankStatementService.importFromCsv(multipartFile, Compression.NONE, ImportResultMode.SUMMARY).summary();
+        assertEquals(1, importedFiles.size());
+        assertEquals(spoolDirectory, importedFiles.get(0).getParent());
+        assertFalse(Files.exists(importedFiles.get(0)));
+    }
 
-        @Test
-        void getAccountBalance_whenAccountHasReceivedBankStatementsAndSentBankStatementsWithDifferentCurrencies_shouldReturnListOfBalancesGroupedByCurrency() {
-            when(bankStatementRepository.findAllByAccountNumberAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO))
-                    .thenReturn(List.of(
-                            new BankStatement(1L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", 100D, "USD"),
-                            new BankStatement(2L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", 100D, "EUR")
-                    ));
-            when(bankStatementRepository.findAllByBeneficiaryAndOperationDateIsBetween("account1", DATE_TIME_FROM, DATE_TIME_TO))
-                    .thenReturn(List.of(
-                            new BankStatement(1L, "account2", parseLocalDateTime("2022-09-19T20:55:41"), "account1", "comment", 200D, "USD"),
-                            new BankStatement(2L, "account2", parseLocalDateTime("2022-09-19T20:55:41"), "account1", "comment", 200D, "EUR")
-                    ));
-            List<AccountBalanceDto> accountBalances = bankStatementService.getAccountBalances("account1", DATE_FROM, DATE_TO);
-            assertEquals(2, accountBalances.size());
-            assertEquals(100D, accountBalances.get(0).amount());
-            assertEquals("EUR", accountBalances.get(0).currency());
-            assertEquals(100D, accountBalances.get(1).amount());
-            assertEquals("USD", accountBalances.get(1).currency());
+    @Test
+    void importFromCsv_whenDecompressedCsvIsAboveCopyThreshold_shouldCopyRowsAndReturnSummary() throws IOException {
+        byte[] csv = new byte[100];
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream outputStream = Compression.GZIP.compress(compressed, 6, 512)) {
+            outputStream.write(csv);
         }
+        importProperties.setCopyThreshold(DataSize.ofBytes(csv.length - 1));
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(compressed.toByteArray()));
+        mockParsedChunks(List.of(
+                new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("500"), "EUR")
+        ));
+        when(bankStatementChunkWriter.copy(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        BankStatementService.ImportResult importResult =
+                bankStatementService.importFromCsv(multipartFile, Compression.GZIP, ImportResultMode.ROWS);
+        assertNull(importResult.bankStatements());
+        assertEquals(1, importResult.summary().acceptedCount());
+        verify(bankStatementChunkWriter).copy(any());
+        verify(bankStatementChunkWriter, never()).save(any());
+    }
+
+    @Test
+    void export_whenBankStatementsExist_shouldWriteToFile() throws IOException {
+        List<BankStatement> bankStatements = List.of(
+                new BankStatement(1L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR"),
+                new BankStatement(2L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR")
+        );
+        when(bankStatementRepository.streamAllByOperationDateIsBetween(any(), any())).thenReturn(bankStatements.stream());
+        OutputStream outputStream = mock(OutputStream.class);
+        List<BankStatement> writtenBankStatements = mockWrittenBankStatements();
+        bankStatementService.export(DATE_FROM, DATE_TO, ExportFormat.CSV, Compression.NONE, outputStream);
+        assertEquals(bankStatements, writtenBankStatements);
+        bankStatements.forEach(bankStatement -> verify(entityManager).detach(bankStatement));
+    }
+
+    @Test
+    void export_whenBankStatementsExist_shouldRecordRowsAndBytes() throws IOException {
+        List<BankStatement> bankStatements = List.of(
+                new BankStatement(1L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR"),
+                new BankStatement(2L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("100"), "EUR")
+        );
+        when(bankStatementRepository.streamAllByOperationDateIsBetween(any(), any())).thenReturn(bankStatements.stream());
+        mockWrittenBankStatements();
+        bankStatementService.export(DATE_FROM, DATE_TO, ExportFormat.CSV, Compression.NONE, OutputStream.nullOutputStream());
+        assertEquals(2, meterRegistry.get(BankStatementMetrics.EXPORT_ROWS).tag("format", "csv").counter().count());
+        assertEquals(2, meterRegistry.get(BankStatementMetrics.EXPORT_BYTES).tags("format", "csv", "compression", "none").counter().count());
+    }
+
+    @Test
+    void export_whenBankStatementsAreEmpty_shouldWriteEmptyFile() throws IOException {
+        when(bankStatementRepository.streamAllByOperationDateIsBetween(any(), any())).thenReturn(Stream.empty());
+        OutputStream outputStream = mock(OutputStream.class);
+        List<BankStatement> writtenBankStatements = mockWrittenBankStatements();
+        bankStatementService.export(DATE_FROM, DATE_TO, ExportFormat.CSV, Compression.NONE, outputStream);
+        assertEquals(0, writtenBankStatements.size());
+    }
+
+    @Test
+    void getBankStatements_whenMoreRowsThanPageSizeExist_shouldReturnTokenOfLastRow() {
+        BankStatementFilter filter = BankStatementFilter.builder().accountNumber("account1").build();
+        when(bankStatementRepository.findPage(filter, null, 3)).thenReturn(List.of(
+                new BankStatement(1L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", null, new BigDecimal("100"), "EUR"),
+                new BankStatement(2L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", null, new BigDecimal("100"), "EUR"),
+                new BankStatement(3L, "account1", parseLocalDateTime("2022-09-20T20:55:41"), "account2", null, new BigDecimal("100"), "EUR")));
+        BankStatementPageDto page = bankStatementService.getBankStatements(filter, null, 2);
+        assertEquals(2, page.items().size());
+        when(bankStatementRepository.findPage(filter, new BankStatementKey(parseLocalDateTime("2022-09-19T20:55:41"), 2L), 3))
+                .thenReturn(List.of());
+        assertTrue(bankStatementService.getBankStatements(filter, page.nextPageToken(), 2).items().isEmpty());
+    }
+
+    @Test
+    void getBankStatements_whenLastPageIsRead_shouldReturnNoToken() {
+        BankStatementFilter filter = BankStatementFilter.builder().build();
+        when(bankStatementRepository.findPage(filter, null, BankStatementService.MAX_PAGE_SIZE + 1)).thenReturn(List.of(
+                new BankStatement(1L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", null, new BigDecimal("100"), "EUR")));
+        BankStatementPageDto page = bankStatementService.getBankStatements(filter, null, Integer.MAX_VALUE);
+        assertEquals(1, page.items().size());
+        assertNull(page.nextPageToken());
+    }
+
+    @Test
+    void getBankStatements_whenTokenIsInvalid_shouldThrowInvalidPageTokenException() {
+        BankStatementFilter filter = BankStatementFilter.builder().build();
+        assertThrows(InvalidPageTokenException.class, () -> bankStatementService.getBankStatements(filter, "not a token", 10));
+        verifyNoInteractions(bankStatementRepository);
     }
 
     private void mockCsvFile(byte[] bytes) throws IOException {
         when(multipartFile.getContentType()).thenReturn(CSV_CONTENT_TYPE);
-        when(multipartFile.getBytes()).thenReturn(bytes);
+        doAnswer(invocation -> Files.write(invocation.getArgument(0), bytes))
+                .when(multipartFile).transferTo(any(Path.class));
+    }
+
+    /**
+     * Writes a single byte for every bank statement.
+     */
+    private List<BankStatement> mockWrittenBankStatements() {
+        List<BankStatement> writtenBankStatements = new ArrayList<>();
+        doAnswer(invocation -> {
+            Stream<BankStatement> bankStatements = invocation.getArgument(0);
+            bankStatements.forEach(writtenBankStatements::add);
+            invocation.<OutputStream>getArgument(1).write(new byte[writtenBankStatements.size()]);
+            return null;
+        }).when(csvService).writeBankStatementsToCsv(any(), any(), anyInt());
+        return writtenBankStatements;
+    }
+
+    /**
+     * Numbers the parsed rows consecutively from row 2, as if the parser skipped none of them.
+     */
+    @SafeVarargs
+    private void mockParsedChunks(List<BankStatement>... chunks) {
+        doAnswer(invocation -> {
+            BiFunction<List<BankStatement>, long[], Object> chunkProcessor = invocation.getArgument(2);
+            Consumer<ParsedChunk<Object>> chunkConsumer = invocation.getArgument(3);
+            long rowNumber = 2;
+            for (List<BankStatement> chunk : chunks) {
+                long[] rowNumbers = LongStream.range(rowNumber, rowNumber + chunk.size()).toArray();
+                rowNumber += chunk.size();
+                chunkConsumer.accept(new ParsedChunk<>(chunkProcessor.apply(chunk, rowNumbers), new RejectCounts(),
+                        new RejectedRows(), 0));
+            }
+            return null;
+        }).when(csvImportPipeline).importBankStatements(any(FileSystemResource.class), anyInt(), any(), any());
     }
 
 
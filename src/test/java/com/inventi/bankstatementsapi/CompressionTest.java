@@ -0,0 +1,61 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.csv.Compression;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompressionTest {
+
+    private static final String CSV = "accountNumber,operationDate,beneficiary,comment,amount,currency\n" +
+            "account1,2022-09-19T20:55:41,account2,ąčę,100,EUR\n";
+
+    @ParameterizedTest
+    @EnumSource(Compression.class)
+    void decompress_whenOutputWasCompressed_shouldRestoreContent(Compression compression) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream outputStream = compression.compress(compressed, 3, 512)) {
+            outputStream.write(CSV.getBytes(StandardCharsets.UTF_8));
+        }
+        try (InputStream inputStream = compression.decompress(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertEquals(CSV, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void fromAcceptEncoding_whenSeveralEncodingsAreAccepted_shouldPreferZstd() {
+        assertEquals(Compression.ZSTD, Compression.fromAcceptEncoding("gzip, deflate, br, zstd"));
+    }
+
+    @Test
+    void fromAcceptEncoding_whenEncodingIsRefused_shouldSkipIt() {
+        assertEquals(Compression.GZIP, Compression.fromAcceptEncoding("zstd;q=0, GZIP;q=0.5"));
+        assertEquals(Compression.NONE, Compression.fromAcceptEncoding("gzip; q=0.0"));
+    }
+
+    @Test
+    void fromAcceptEncoding_whenNoSupportedEncodingIsAccepted_shouldReturnNone() {
+        assertEquals(Compression.NONE, Compression.fromAcceptEncoding(null));
+        assertEquals(Compression.NONE, Compression.fromAcceptEncoding("br, deflate"));
+    }
+
+    @Test
+    void isUploadMediaType_whenUploadIsCompressed_shouldAcceptCompressedAndGenericTypes() {
+        assertTrue(Compression.GZIP.isUploadMediaType("application/gzip"));
+        assertTrue(Compression.ZSTD.isUploadMediaType("application/octet-stream"));
+        assertTrue(Compression.ZSTD.isUploadMediaType("text/csv"));
+        assertFalse(Compression.NONE.isUploadMediaType("application/octet-stream"));
+        assertFalse(Compression.GZIP.isUploadMediaType("application/zstd"));
+    }
+}
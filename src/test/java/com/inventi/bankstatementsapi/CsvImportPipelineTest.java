@@ -0,0 +1,177 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.config.ImportProperties;
+import com.inventi.bankstatementsapi.constant.ErrorMessages;
+import com.inventi.bankstatementsapi.csv.BankStatementCsvReader;
+import com.inventi.bankstatementsapi.csv.RejectedRows;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.exception.CsvImportFailedException;
+import com.inventi.bankstatementsapi.service.CsvImportPipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CsvImportPipelineTest {
+
+    private static final String CONTENT_TYPE_CSV = "text/csv";
+
+    private CsvImportPipeline csvImportPipeline;
+
+    @BeforeEach
+    void setup() {
+        ImportProperties importProperties = new ImportProperties();
+        importProperties.setParserThreads(4);
+        csvImportPipeline = new CsvImportPipeline(importProperties);
+    }
+
+    @AfterEach
+    void destroy() {
+        csvImportPipeline.shutdown();
+    }
+
+    @Test
+    void importBankStatements_whenFileContainsCsvData_shouldMatchSequentialReaderInFileOrder() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "BankStatements.csv", CONTENT_TYPE_CSV,
+                new ClassPathResource("csv/BankStatements.csv").getInputStream());
+        assertMatchesSequentialReader(file, 3);
+    }
+
+    @Test
+    void importBankStatements_whenValuesContainQuotedLineBreaks_shouldKeepRecordsWhole() throws IOException {
+        StringBuilder csv = new StringBuilder("\uFEFFcomment,accountNumber,operationDate,beneficiary,amount,currency\r\n");
+        for (int i = 0; i < 5000; i++) {
+            String comment = switch (i % 4) {
+                case 0 -> "\"line\nbreak " + i + "\"";
+                case 1 -> "\"\"\"quoted\"\", \r\n" + i + "\"";
+                case 2 -> "";
+                default -> "plain " + i;
+            };
+            csv.append(comment).append(",account").append(i % 50).append(",2022-09-19T20:55:41,account")
+                    .append(i % 70).append(',').append(i % 9 == 0 ? "invalid" : i + ".25").append(",EUR")
+                    .append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "quoted.csv", CONTENT_TYPE_CSV,
+                csv.toString().getBytes(StandardCharsets.UTF_8));
+        assertMatchesSequentialReader(file, 7);
+        assertMatchesSequentialReader(file, 2000);
+    }
+
+    @Test
+    void importBankStatements_whenUnquotedValuesContainQuotes_shouldKeepRowNumbersOfSequentialReader() throws IOException {
+        StringBuilder csv = new StringBuilder("accountNumber,operationDate,beneficiary,comment,amount,currency\n");
+        for (int i = 0; i < 500; i++) {
+            String comment = switch (i % 3) {
+                case 0 -> "O\"Brien " + i;
+                case 1 -> "\"quoted\" then \"literal " + i;
+                default -> "plain " + i;
+            };
+            csv.append("account").append(i % 50).append(",2022-09-19T20:55:41,account").append(i % 70).append(',')
+                    .append(comment).append(',').append(i % 7 == 0 ? "invalid" : i + ".25").append(",EUR")
+                    .append(i % 5 == 0 ? "\r" : "\n");
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "quotes.csv", CONTENT_TYPE_CSV,
+                csv.toString().getBytes(StandardCharsets.UTF_8));
+        assertMatchesSequentialReader(file, 3);
+        assertMatchesSequentialReader(file, 64);
+    }
+
+    @Test
+    void importBankStatements_whenQuotedValueIsNeverClosed_shouldThrowCsvImportFailedException() {
+        String csv = "accountNumber,operationDate,beneficiary,comment,amount,currency\n"
+                + "account1,2022-09-19T20:55:41,account2,\"unclosed,1.00,EUR\n"
+                + "account1,2022-09-19T20:55:41,account2,comment,1.00,EUR\n".repeat(30_000);
+        MockMultipartFile file = new MockMultipartFile("file", "unclosed.csv", CONTENT_TYPE_CSV,
+                csv.getBytes(StandardCharsets.UTF_8));
+        CsvImportFailedException exception = assertThrows(CsvImportFailedException.class,
+                () -> csvImportPipeline.importBankStatements(file, 10, (chunk, rowNumbers) -> chunk, chunk -> {
+                }));
+        assertEquals(ErrorMessages.IMPORT_CSV_FAILED_RECORD_IS_TOO_LONG, exception.getMessage());
+    }
+
+    @Test
+    void importBankStatements_whenSourceIsLocalFile_shouldParseMappedFileLikeSequentialReader(@TempDir Path directory)
+            throws IOException {
+        Path csvFile = directory.resolve("BankStatements.csv");
+        try (InputStream inputStream = new ClassPathResource("csv/BankStatements.csv").getInputStream()) {
+            Files.copy(inputStream, csvFile);
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "BankStatements.csv", CONTENT_TYPE_CSV,
+                Files.readAllBytes(csvFile));
+        assertMatchesSequentialReader(file, new FileSystemResource(csvFile), 2);
+    }
+
+    @Test
+    void importBankStatements_whenHeaderIsInvalid_shouldThrowCsvImportFailedException() {
+        MockMultipartFile file = new MockMultipartFile("file", "invalid.csv", CONTENT_TYPE_CSV,
+                "unknown,amount\nvalue,1".getBytes(StandardCharsets.UTF_8));
+        assertThrows(CsvImportFailedException.class,
+                () -> csvImportPipeline.importBankStatements(file, 10, (chunk, rowNumbers) -> chunk, chunk -> {
+                }));
+    }
+
+    @Test
+    void importBankStatements_whenChunkProcessorFails_shouldRethrowOnCallingThread() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "BankStatements.csv", CONTENT_TYPE_CSV,
+                new ClassPathResource("csv/BankStatements.csv").getInputStream());
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> csvImportPipeline.importBankStatements(file, 1, (chunk, rowNumbers) -> {
+                    throw new IllegalStateException("processing failed");
+                }, chunk -> {
+                }));
+        assertEquals("processing failed", exception.getMessage());
+    }
+
+    private void assertMatchesSequentialReader(MockMultipartFile file, int chunkSize) throws IOException {
+        assertMatchesSequentialReader(file, file, chunkSize);
+    }
+
+    private void assertMatchesSequentialReader(MockMultipartFile file, InputStreamSource source, int chunkSize)
+            throws IOException {
+        List<BankStatement> expectedBankStatements = new ArrayList<>();
+        List<Long> expectedSkippedRows = new ArrayList<>();
+        try (BankStatementCsvReader reader = new BankStatementCsvReader(file.getInputStream())) {
+            reader.readHeader();
+            BankStatement bankStatement;
+            while ((bankStatement = reader.next()) != null) {
+                expectedBankStatements.add(bankStatement);
+            }
+            addRowNumbers(reader.getSkippedRows(), expectedSkippedRows);
+        }
+        List<BankStatement> bankStatements = new ArrayList<>();
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<Long> skippedRows = new ArrayList<>();
+        csvImportPipeline.importBankStatements(source, chunkSize, (chunk, rowNumbers) -> chunk, parsedChunk -> {
+            chunkSizes.add(parsedChunk.result().size());
+            bankStatements.addAll(parsedChunk.result());
+            addRowNumbers(parsedChunk.skippedRows(), skippedRows);
+        });
+        assertEquals(expectedBankStatements, bankStatements);
+        assertEquals(expectedSkippedRows, skippedRows);
+        assertFalse(expectedBankStatements.isEmpty());
+        chunkSizes.forEach(size -> assertTrue(size <= chunkSize));
+    }
+
+    private static void addRowNumbers(RejectedRows rejectedRows, List<Long> rowNumbers) {
+        for (int i = 0; i < rejectedRows.size(); i++) {
+            rowNumbers.add(rejectedRows.getRowNumber(i));
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.inventi.bankstatementsapi;
 
-import com.inventi.bankstatementsapi.csv.BankStatementExportCsvBean;
-import com.inventi.bankstatementsapi.csv.BankStatementImportCsvBean;
+import com.inventi.bankstatementsapi.csv.BankStatementCopyCsvWriter;
+import com.inventi.bankstatementsapi.csv.Compression;
+import com.inventi.bankstatementsapi.csv.RejectCounts;
+import com.inventi.bankstatementsapi.csv.RejectReason;
+import com.inventi.bankstatementsapi.csv.RejectedRows;
+import com.inventi.bankstatementsapi.entity.BankStatement;
 import com.inventi.bankstatementsapi.exception.CsvImportFailedException;
 import com.inventi.bankstatementsapi.service.CsvService;
+import com.inventi.bankstatementsapi.utils.HashUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,15 +18,17 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import java.math.BigDecimal;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -41,119 +48,191 @@ public class CsvServiceTest {
     private CsvService csvService;
 
     @Nested
-    @DisplayName("Csv reader")
-    class CsvReader {
+    @DisplayName("Csv content type")
+    class ContentType {
+
         @Test
-        void readBeansFromCsv_whenAnyParameterIsNull_shouldThrowNullPointerException() {
-            assertThrows(NullPointerException.class, () -> csvService.readBeansFromCsv(null, null));
-            assertThrows(NullPointerException.class, () -> csvService.readBeansFromCsv(multipartFile, null));
+        void validateContentType_whenFileIsCsv_shouldAcceptIt() {
+            when(multipartFile.getContentType()).thenReturn(CONTENT_TYPE_CSV);
+            assertDoesNotThrow(() -> csvService.validateContentType(multipartFile, Compression.NONE));
         }
 
         @Test
-        void readBeansFromCsv_whenFileContainCsvData_shouldReturnListOfBeans() throws IOException {
-            mockCsvFile("csv/BankStatements.csv");
-            assertEquals(4, csvService.readBeansFromCsv(multipartFile, BankStatementImportCsvBean.class).size());
+        void validateContentType_whenFileIsNotCsv_shouldThrowCsvImportFailedException() {
+            when(multipartFile.getContentType()).thenReturn(CONTENT_TYPE_PLAIN);
+            assertThrows(CsvImportFailedException.class, () -> csvService.validateContentType(multipartFile, Compression.NONE));
         }
+    }
+
+    @Nested
+    @DisplayName("Bank statement csv reader")
+    class BankStatementCsvReader {
 
         @Test
-        void readBeansFromCsv_whenFileContainsOnlyHeader_shouldReturnEmptyList() throws IOException {
-            mockCsvFile("csv/OnlyHeader.csv");
-            assertEquals(0, csvService.readBeansFromCsv(multipartFile, BankStatementImportCsvBean.class).size());
+        void next_whenFileContainCsvData_shouldSkipUnconvertibleRows() throws IOException {
+            List<BankStatement> bankStatements = new ArrayList<>();
+            long skippedRows = readBankStatements(readBytesFromFile("csv/BankStatements.csv"), bankStatements);
+            assertEquals(4, bankStatements.size());
+            assertEquals(5, skippedRows);
+            assertEquals(new BankStatement(null, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", new BigDecimal("500"), "EUR"),
+                    bankStatements.get(0));
+            assertEquals(StringUtils.EMPTY, bankStatements.get(1).getComment());
         }
 
         @Test
-        void readBeansFromCsv_whenFileIsNotCsv_shouldThrowCsvImportFailedException() {
-            when(multipartFile.getContentType()).thenReturn(CONTENT_TYPE_PLAIN);
-            assertThrows(CsvImportFailedException.class, () -> csvService.readBeansFromCsv(multipartFile, BankStatementImportCsvBean.class));
+        void next_whenFileContainsOnlyHeader_shouldReadNothing() throws IOException {
+            List<BankStatement> bankStatements = new ArrayList<>();
+            readBankStatements(readBytesFromFile("csv/OnlyHeader.csv"), bankStatements);
+            assertEquals(0, bankStatements.size());
         }
 
         @Test
-        void readBeansFromCsv_whenFileContainsNoData_shouldThrowCsvImportFailedException() throws IOException {
-            mockCsvFile("csv/EmptyFile.csv");
-            assertThrows(CsvImportFailedException.class,
-                    () -> csvService.readBeansFromCsv(multipartFile, BankStatementImportCsvBean.class));
+        void readHeader_whenHeaderIsMissingOrInvalid_shouldThrowCsvImportFailedException() throws IOException {
+            for (String fileName : List.of("csv/EmptyFile.csv", "csv/FileWithCommasOnly.csv", "csv/BankStatementsWithMismatchingHeader.csv")) {
+                byte[] bytes = readBytesFromFile(fileName);
+                assertThrows(CsvImportFailedException.class, () -> readBankStatements(bytes, new ArrayList<>()));
+            }
         }
 
         @Test
-        void readBeansFromCsv_whenFileContainsOnlyCommas_shouldThrowCsvImportFailedException() throws IOException {
-            mockCsvFile("csv/FileWithCommasOnly.csv");
-            assertThrows(CsvImportFailedException.class,
-                    () -> csvService.readBeansFromCsv(multipartFile, BankStatementImportCsvBean.class));
+        void next_whenFileRowsContainTooManyColumns_shouldSkipThem() throws IOException {
+            List<BankStatement> bankStatements = new ArrayList<>();
+            long skippedRows = readBankStatements(readBytesFromFile("csv/BankStatementsWithTooManyColumns.csv"), bankStatements);
+            assertEquals(1, bankStatements.size());
+            assertEquals(8, skippedRows);
         }
 
         @Test
-        void readBeansFromCsv_whenFileContainsMismatchingHeader_shouldThrowCsvImportFailedException() throws IOException {
-            mockCsvFile("csv/BankStatementsWithMismatchingHeader.csv");
-            assertThrows(CsvImportFailedException.class,
-                    () -> csvService.readBeansFromCsv(multipartFile, BankStatementImportCsvBean.class));
+        void next_whenValuesAreQuoted_shouldUnescapeThem() throws IOException {
+            String csv = "\uFEFFcurrency,AMOUNT,comment,accountNumber,operationDate,beneficiary\r\n" +
+                    "EUR,-12.5,\"line1\nline2, \"\"quoted\"\"\",account1,2022-09-19T20:55:41,\"ąčę\"\r\n" +
+                    "\r\n" +
+                    "EUR, 7 ,,account1,2022-02-30T20:55:41,account2\n" +
+                    "EUR,1e3,,account1,2022-09-19T20:55:41,account2";
+            List<BankStatement> bankStatements = new ArrayList<>();
+            long skippedRows = readBankStatements(csv.getBytes(StandardCharsets.UTF_8), bankStatements);
+            assertEquals(2, bankStatements.size());
+            assertEquals(1, skippedRows);
+            assertEquals("line1\nline2, \"quoted\"", bankStatements.get(0).getComment());
+            assertEquals("ąčę", bankStatements.get(0).getBeneficiary());
+            assertEquals(new BigDecimal("-12.5"), bankStatements.get(0).getAmount());
+            assertEquals(new BigDecimal("1E+3"), bankStatements.get(1).getAmount());
         }
 
         @Test
-        void readBeansFromCsv_whenFileRowsContainTooManyColumns_shouldReturnBeansWithCorrectColumnAmount() throws IOException {
-            mockCsvFile("csv/BankStatementsWithTooManyColumns.csv");
-            assertEquals(1, csvService.readBeansFromCsv(multipartFile, BankStatementImportCsvBean.class).size());
+        void next_whenInputIsDirectBuffer_shouldMatchStreamedInput() throws IOException {
+            String csv = "\uFEFFcurrency,AMOUNT,comment,accountNumber,operationDate,beneficiary\r\n" +
+                    "EUR,-12.5,\"line1\nline2, \"\"quoted\"\"\",account1,2022-09-19T20:55:41,\"ąčę\"\r\n" +
+                    "\r\n" +
+                    "EUR, 7 ,,account1,2022-02-30T20:55:41,account2\r" +
+                    "EUR,0.25,pay ąčę for \"x\",account1,2022-09-19T20:55:41,account2\n" +
+                    "EUR,3,\"invoice, 2\",account1,2022-09-19T20:55:41,\"\"\r\n" +
+                    "EUR,3,\"invoice\r\n3\",account1,2022-09-19T20:55:41,account2\n" +
+                    "EUR,1e3,,account1,2022-09-19T20:55:41,beneficiary ž";
+            byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer input = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+            com.inventi.bankstatementsapi.csv.BankStatementCsvReader bufferReader =
+                    new com.inventi.bankstatementsapi.csv.BankStatementCsvReader(input.asReadOnlyBuffer());
+            com.inventi.bankstatementsapi.csv.BankStatementCsvReader streamReader =
+                    new com.inventi.bankstatementsapi.csv.BankStatementCsvReader(new ByteArrayInputStream(bytes));
+            bufferReader.readHeader();
+            streamReader.readHeader();
+            List<BankStatement> bankStatements = new ArrayList<>();
+            BankStatement bankStatement;
+            while ((bankStatement = bufferReader.next()) != null) {
+                bankStatements.add(bankStatement);
+                assertEquals(streamReader.next(), bankStatement);
+            }
+            assertNull(streamReader.next());
+            assertEquals(4, bankStatements.size());
+            assertEquals("line1\nline2, \"quoted\"", bankStatements.get(0).getComment());
+            assertEquals("pay ąčę for \"x\"", bankStatements.get(1).getComment());
+            assertEquals("invoice\r\n3", bankStatements.get(2).getComment());
+            assertEquals("beneficiary ž", bankStatements.get(3).getBeneficiary());
+            assertEquals(2, bufferReader.getSkippedCount());
+            assertEquals(streamReader.getSkippedCount(), bufferReader.getSkippedCount());
+            assertEquals(4, bufferReader.getSkippedRows().getRowNumber(0));
         }
-    }
-
-    @Nested
-    @DisplayName("Csv writer")
-    class CsvWriter {
-
-        private final Path CSV_PATH = Path.of("src/test/java/test.csv");
-        private File file;
 
-        @BeforeEach
-        void setup() {
-            file = new File(CSV_PATH.toUri());
+        @Test
+        void next_whenRowsAreSkipped_shouldCountThemByReason() throws IOException {
+            String csv = "accountNumber,operationDate,beneficiary,comment,amount,currency\n" +
+                    "account1,2022-09-19T20:55:41,account2,,10,EUR\n" +
+                    "account1,2022-09-19T20:55:41,account2,,10\n" +
+                    "account1,2022-09-19T20:55:41, ,,10,EUR\n" +
+                    "account1,2022-09-19,account2,,10,EUR\n" +
+                    "account1,2022-13-19T20:55:41,account2,,10,EUR\n" +
+                    "account1,2022-09-19T20:55:41,account2,,ten,EUR\n";
+            com.inventi.bankstatementsapi.csv.BankStatementCsvReader reader =
+                    new com.inventi.bankstatementsapi.csv.BankStatementCsvReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+            reader.readHeader();
+            assertNotNull(reader.next());
+            assertNull(reader.next());
+            RejectCounts skippedCounts = reader.getSkippedCounts();
+            assertEquals(1, skippedCounts.get(RejectReason.COLUMN_COUNT));
+            assertEquals(1, skippedCounts.get(RejectReason.MISSING_VALUE));
+            assertEquals(2, skippedCounts.get(RejectReason.INVALID_DATE));
+            assertEquals(1, skippedCounts.get(RejectReason.INVALID_AMOUNT));
+            assertEquals(5, reader.getSkippedCount());
         }
 
-        @AfterEach
-        void destroy() {
-            file.deleteOnExit();
+        @Test
+        void next_whenRowsAreSkipped_shouldRecordTheirRowNumbers() throws IOException {
+            String csv = "accountNumber,operationDate,beneficiary,comment,amount,currency\n" +
+                    "account1,2022-09-19T20:55:41,account2,,10,EUR\n" +
+                    "account1,2022-09-19T20:55:41,account2,,0.00001,EUR\n" +
+                    "account1,2022-09-19T20:55:41,account2,,10,EUR\n" +
+                    "account1,2022-09-19,account2,,10,EUR\n";
+            com.inventi.bankstatementsapi.csv.BankStatementCsvReader reader =
+                    new com.inventi.bankstatementsapi.csv.BankStatementCsvReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+            reader.readHeader();
+            assertNotNull(reader.next());
+            assertNotNull(reader.next());
+            assertNull(reader.next());
+            RejectedRows skippedRows = reader.getSkippedRows();
+            assertEquals(2, skippedRows.size());
+            assertEquals(3, skippedRows.getRowNumber(0));
+            assertEquals(RejectReason.INVALID_AMOUNT, skippedRows.getReason(0));
+            assertEquals(5, skippedRows.getRowNumber(1));
+            assertEquals(RejectReason.INVALID_DATE, skippedRows.getReason(1));
         }
+    }
+
+    @Nested
+    @DisplayName("Bank statement csv writer")
+    class BankStatementCsvWriter {
 
         @Test
-        void writeBeansToCsv_whenBeansExist_shouldWriteBeansToFile() throws IOException {
-            try (PrintWriter printWriter = new PrintWriter(file)) {
-                csvService.writeBeansToCsv(List.of(
-                        new BankStatementExportCsvBean(1L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", 500D, "EUR"),
-                        new BankStatementExportCsvBean(2L, "account3", parseLocalDateTime("2022-09-22T20:55:41"), "account4", StringUtils.EMPTY, 300D, "USD")
-                ), printWriter);
-            }
-            try (Stream<String> linesStream = Files.lines(CSV_PATH)) {
-                List<String> lines = linesStream.toList();
-                assertEquals(3, lines.size());
-                assertTrue(lines.get(0).contains("ACCOUNTNUMBER"));
-                assertTrue(lines.get(1).contains("account1"));
-                assertTrue(lines.get(2).contains("account3"));
-            }
+        void writeBankStatementsToCsv_whenBankStatementsExist_shouldQuoteEveryValue() {
+            List<BankStatement> bankStatements = List.of(
+                    new BankStatement(1L, "account\"1,", parseLocalDateTime("2022-09-19T20:55:00"), "account2", "comment\nline", new BigDecimal("10000000000"), "EUR"),
+                    new BankStatement(2L, "account3", parseLocalDateTime("2022-09-22T20:55:41"), "account4", null, new BigDecimal("0.1"), "USD")
+            );
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            csvService.writeBankStatementsToCsv(bankStatements.stream(), output, 16);
+            assertEquals("\"ACCOUNTNUMBER\",\"AMOUNT\",\"BENEFICIARY\",\"COMMENT\",\"CURRENCY\",\"ID\",\"OPERATIONDATE\"\n" +
+                            "\"account\"\"1,\",\"10000000000.00\",\"account2\",\"comment\nline\",\"EUR\",\"1\",\"2022-09-19T20:55:00\"\n" +
+                            "\"account3\",\"0.10\",\"account4\",\"\",\"USD\",\"2\",\"2022-09-22T20:55:41\"\n",
+                    output.toString(StandardCharsets.UTF_8));
         }
 
         @Test
-        void writeBeansToCsv_whenBeansAreEmpty_shouldWriteEmptyFile() throws IOException {
-            try (PrintWriter printWriter = new PrintWriter(file)) {
-                csvService.writeBeansToCsv(new ArrayList<>(), printWriter);
-            }
-            try (Stream<String> linesStream = Files.lines(CSV_PATH)) {
-                List<String> lines = linesStream.toList();
-                assertEquals(0, lines.size());
-            }
+        void write_whenWritingCopyRows_shouldQuoteTextAndLeaveNullUnquoted() throws IOException {
+            BankStatement bankStatement = new BankStatement(7L, "account\"1", parseLocalDateTime("2022-09-19T20:55:00"), "ąč", null, new BigDecimal("1E+3"), "EUR");
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            BankStatementCopyCsvWriter writer = new BankStatementCopyCsvWriter(output, 16);
+            writer.write(bankStatement);
+            writer.flush();
+            assertEquals("7,\"account\"\"1\",2022-09-19T20:55:00,\"ąč\",,1000,\"EUR\",\\x"
+                            + HexFormat.of().formatHex(HashUtils.rowHash(bankStatement)) + "\n",
+                    output.toString(StandardCharsets.UTF_8));
         }
 
         @Test
-        void writeBeansToCsv_whenBeanIsEmpty_shouldWriteOnlyCorrectBeansToFile() throws IOException {
-            try (PrintWriter printWriter = new PrintWriter(file)) {
-                List<BankStatementExportCsvBean> beans = List.of(
-                        new BankStatementExportCsvBean(),
-                        new BankStatementExportCsvBean(1L, "account1", parseLocalDateTime("2022-09-19T20:55:41"), "account2", "comment", 500D, "EUR"));
-                csvService.writeBeansToCsv(beans, printWriter);
-            }
-            try (Stream<String> linesStream = Files.lines(CSV_PATH)) {
-                List<String> lines = linesStream.toList();
-                assertEquals(2, lines.size());
-                assertTrue(lines.get(0).contains("ACCOUNTNUMBER"));
-                assertTrue(lines.get(1).contains("account1"));
-            }
+        void writeBankStatementsToCsv_whenBankStatementsAreEmpty_shouldWriteNothing() {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            csvService.writeBankStatementsToCsv(Stream.empty(), output, 16);
+            assertEquals(0, output.size());
         }
     }
 
@@ -161,9 +240,16 @@ public class CsvServiceTest {
         return LocalDateTime.parse(dateTime, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
     }
 
-    private void mockCsvFile(String fileName) throws IOException {
-        when(multipartFile.getContentType()).thenReturn(CONTENT_TYPE_CSV);
-        when(multipartFile.getBytes()).thenReturn(readBytesFromFile(fileName));
+    private long readBankStatements(byte[] csv, List<BankStatement> bankStatements) throws IOException {
+        try (com.inventi.bankstatementsapi.csv.BankStatementCsvReader reader =
+                     new com.inventi.bankstatementsapi.csv.BankStatementCsvReader(new ByteArrayInputStream(csv))) {
+            reader.readHeader();
+            BankStatement bankStatement;
+            while ((bankStatement = reader.next()) != null) {
+                bankStatements.add(bankStatement);
+            }
+            return reader.getSkippedCount();
+        }
     }
 
     private byte[] readBytesFromFile(String fileName) throws IOException {
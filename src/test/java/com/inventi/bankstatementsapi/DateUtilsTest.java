@@ -38,4 +38,19 @@ public class DateUtilsTest {
         LocalDateTime toLocalDateTime = DateUtils.getTo(toLocalDate);
         assertEquals(toLocalDate.atStartOfDay(), toLocalDateTime);
     }
+
+    @Test
+    void getToDateTime_whenDateGiven_shouldReturnStartOfDay() {
+        assertEquals(LocalDate.of(2022, 1, 1).atStartOfDay(), DateUtils.getToDateTime("2022-01-01"));
+    }
+
+    @Test
+    void getToDateTime_whenDateTimeGiven_shouldReturnIt() {
+        assertEquals(LocalDateTime.of(2022, 1, 1, 20, 55, 41), DateUtils.getToDateTime("2022-01-01T20:55:41"));
+    }
+
+    @Test
+    void getFromDateTime_whenNull_shouldReturnEpochLocalDateTime() {
+        assertEquals(LocalDate.EPOCH.atStartOfDay(), DateUtils.getFromDateTime(null));
+    }
 }
@@ -0,0 +1,106 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.config.ExportProperties;
+import com.inventi.bankstatementsapi.exception.ExportRejectedException;
+import com.inventi.bankstatementsapi.service.ExportLimiter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExportLimiterTest {
+
+    private final ExportProperties exportProperties = new ExportProperties();
+
+    private final HikariDataSource dataSource = new HikariDataSource();
+
+    private final ServerProperties serverProperties = new ServerProperties();
+
+    private final MockEnvironment environment = new MockEnvironment();
+
+    @BeforeEach
+    void setup() {
+        exportProperties.setMaxConcurrentExports(1);
+        exportProperties.setMaxQueuedExports(1);
+        dataSource.setMaximumPoolSize(2);
+    }
+
+    @Test
+    void acquire_whenSlotIsTaken_shouldWaitForRelease() throws InterruptedException {
+        ExportLimiter exportLimiter = new ExportLimiter(exportProperties, dataSource, serverProperties, environment);
+        exportLimiter.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread queuedExport = new Thread(() -> {
+            exportLimiter.acquire();
+            acquired.countDown();
+        });
+        queuedExport.start();
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        exportLimiter.release();
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void acquire_whenQueueIsFull_shouldThrowExportRejectedException() throws InterruptedException {
+        ExportLimiter exportLimiter = new ExportLimiter(exportProperties, dataSource, serverProperties, environment);
+        exportLimiter.acquire();
+        Thread queuedExport = new Thread(exportLimiter::acquire);
+        queuedExport.start();
+        while (queuedExport.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(10);
+        }
+        assertThrows(ExportRejectedException.class, exportLimiter::acquire);
+        exportLimiter.release();
+        queuedExport.join();
+        exportLimiter.release();
+        assertDoesNotThrow(exportLimiter::acquire);
+    }
+
+    @Test
+    void acquire_whenNoSlotFreesUpInTime_shouldThrowExportRejectedException() {
+        exportProperties.setQueueTimeout(Duration.ofMillis(50));
+        ExportLimiter exportLimiter = new ExportLimiter(exportProperties, dataSource, serverProperties, environment);
+        exportLimiter.acquire();
+        assertThrows(ExportRejectedException.class, exportLimiter::acquire);
+        exportLimiter.release();
+        assertDoesNotThrow(exportLimiter::acquire);
+    }
+
+    @Test
+    void acquire_whenQueueSizeIsNotSetOnPlatformThreads_shouldQueueQuarterOfWorkerThreadsLessRunningExports()
+            throws InterruptedException {
+        exportProperties.setMaxQueuedExports(null);
+        serverProperties.getTomcat().getThreads().setMax(12);
+        ExportLimiter exportLimiter = new ExportLimiter(exportProperties, dataSource, serverProperties, environment);
+        exportLimiter.acquire();
+        List<Thread> queuedExports = List.of(new Thread(exportLimiter::acquire), new Thread(exportLimiter::acquire));
+        for (Thread queuedExport : queuedExports) {
+            queuedExport.start();
+            while (queuedExport.getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(10);
+            }
+        }
+        assertThrows(ExportRejectedException.class, exportLimiter::acquire);
+        for (Thread queuedExport : queuedExports) {
+            exportLimiter.release();
+            queuedExport.join();
+        }
+    }
+
+    @Test
+    void constructor_whenExportsCouldTakeEveryConnection_shouldThrowIllegalStateException() {
+        exportProperties.setMaxConcurrentExports(2);
+        assertThrows(IllegalStateException.class, () -> new ExportLimiter(exportProperties, dataSource, serverProperties, environment));
+    }
+}
@@ -0,0 +1,220 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.config.ImportProperties;
+import com.inventi.bankstatementsapi.csv.Compression;
+import com.inventi.bankstatementsapi.csv.RejectReason;
+import com.inventi.bankstatementsapi.csv.RejectedRows;
+import com.inventi.bankstatementsapi.csv.RejectedRowsCsvWriter;
+import com.inventi.bankstatementsapi.dto.ImportJobDto;
+import com.inventi.bankstatementsapi.dto.ImportJobStatus;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.exception.CsvImportFailedException;
+import com.inventi.bankstatementsapi.exception.ImportJobNotFoundException;
+import com.inventi.bankstatementsapi.exception.ImportJobRejectedException;
+import com.inventi.bankstatementsapi.exception.RejectedRowsNotAvailableException;
+import com.inventi.bankstatementsapi.service.BankStatementService;
+import com.inventi.bankstatementsapi.service.CsvService;
+import com.inventi.bankstatementsapi.service.ImportJobService;
+import com.inventi.bankstatementsapi.service.ImportStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+public class ImportJobServiceTest {
+
+    private static final String CSV = "accountNumber,operationDate,beneficiary,comment,amount,currency\n";
+
+    @Mock
+    private BankStatementService bankStatementService;
+
+    @TempDir
+    private Path spoolDirectory;
+
+    private ImportJobService importJobService;
+
+    @BeforeEach
+    void setup() {
+        ImportProperties importProperties = new ImportProperties();
+        importProperties.setMaxConcurrentJobs(1);
+        importProperties.setMaxQueuedJobs(1);
+        importProperties.setSpoolDirectory(spoolDirectory);
+        importJobService = new ImportJobService(new CsvService(), bankStatementService, importProperties);
+    }
+
+    @AfterEach
+    void destroy() {
+        importJobService.shutdown();
+    }
+
+    @Test
+    void submit_whenImportSucceeds_shouldReportProgressOfSpooledFile() throws Exception {
+        doAnswer(invocation -> {
+            InputStreamSource source = invocation.getArgument(0);
+            try (InputStream inputStream = source.getInputStream()) {
+                assertEquals(CSV, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            assertEquals(CSV.length(), invocation.<Long>getArgument(2));
+            ImportStatistics statistics = invocation.getArgument(3);
+            statistics.addAccepted(List.of(bankStatement(), bankStatement()));
+            statistics.addRejected(1);
+            return null;
+        }).when(bankStatementService).importBankStatements(any(), any(), anyLong(), any(), any());
+
+        ImportJobDto submittedJob = importJobService.submit(csvFile(), Compression.NONE, false);
+        ImportJobDto importJob = awaitFinished(submittedJob.jobId());
+
+        assertEquals(ImportJobStatus.COMPLETED, importJob.status());
+        assertEquals(3, importJob.parsedCount());
+        assertEquals(2, importJob.insertedCount());
+        assertEquals(1, importJob.rejectedCount());
+        assertEquals("BankStatements.csv", importJob.fileName());
+        assertNull(importJob.error());
+        assertSpoolDirectoryIsEmpty();
+    }
+
+    @Test
+    void submit_whenUploadIsCompressed_shouldImportDecompressedSpooledFile() throws Exception {
+        doAnswer(invocation -> {
+            InputStreamSource source = invocation.getArgument(0);
+            try (InputStream inputStream = source.getInputStream()) {
+                assertEquals(CSV, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            return null;
+        }).when(bankStatementService).importBankStatements(any(), any(), anyLong(), any(), any());
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream outputStream = Compression.GZIP.compress(compressed, 6, 512)) {
+            outputStream.write(CSV.getBytes(StandardCharsets.UTF_8));
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "BankStatements.csv.gz", "application/gzip", compressed.toByteArray());
+
+        ImportJobDto importJob = awaitFinished(importJobService.submit(file, Compression.GZIP, false).jobId());
+
+        assertEquals(ImportJobStatus.COMPLETED, importJob.status());
+        assertSpoolDirectoryIsEmpty();
+    }
+
+    @Test
+    void submit_whenImportFails_shouldReportFailureAndDeleteSpooledFile() throws Exception {
+        doThrow(new CsvImportFailedException("broken file"))
+                .when(bankStatementService).importBankStatements(any(), any(), anyLong(), any(), any());
+
+        ImportJobDto importJob = awaitFinished(importJobService.submit(csvFile(), Compression.NONE, false).jobId());
+
+        assertEquals(ImportJobStatus.FAILED, importJob.status());
+        assertEquals("broken file", importJob.error());
+        assertSpoolDirectoryIsEmpty();
+    }
+
+    @Test
+    void submit_whenJobSlotsAndQueueAreTaken_shouldRejectJob() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return null;
+        }).when(bankStatementService).importBankStatements(any(), any(), anyLong(), any(), any());
+
+        ImportJobDto runningJob = importJobService.submit(csvFile(), Compression.NONE, false);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        ImportJobDto queuedJob = importJobService.submit(csvFile(), Compression.NONE, false);
+        assertThrows(ImportJobRejectedException.class, () -> importJobService.submit(csvFile(), Compression.NONE, false));
+
+        assertEquals(ImportJobStatus.RUNNING, importJobService.getJob(runningJob.jobId()).status());
+        assertEquals(ImportJobStatus.QUEUED, importJobService.getJob(queuedJob.jobId()).status());
+        release.countDown();
+        assertEquals(ImportJobStatus.COMPLETED, awaitFinished(queuedJob.jobId()).status());
+        assertSpoolDirectoryIsEmpty();
+    }
+
+    @Test
+    void getRejectedRows_whenJobKeepsRejectedRows_shouldReturnTheirRowNumbers() throws Exception {
+        doAnswer(invocation -> {
+            RejectedRows rejectedRows = new RejectedRows();
+            rejectedRows.add(2, RejectReason.INVALID_DATE);
+            rejectedRows.add(7, RejectReason.COLUMN_COUNT);
+            invocation.<RejectedRowsCsvWriter>getArgument(4).write(rejectedRows);
+            return null;
+        }).when(bankStatementService).importBankStatements(any(), any(), anyLong(), any(), any());
+
+        String jobId = importJobService.submit(csvFile(), Compression.NONE, true).jobId();
+        awaitFinished(jobId);
+
+        try (InputStream inputStream = importJobService.getRejectedRows(jobId).getInputStream()) {
+            assertEquals("rowNumber,reason\n2,invalid_date\n7,column_count\n",
+                    new String(inputStream.readAllBytes(), StandardCharsets.US_ASCII));
+        }
+        importJobService.shutdown();
+        assertSpoolDirectoryIsEmpty();
+    }
+
+    @Test
+    void getRejectedRows_whenJobDoesNotKeepRejectedRows_shouldThrowRejectedRowsNotAvailableException() throws Exception {
+        String jobId = importJobService.submit(csvFile(), Compression.NONE, false).jobId();
+        awaitFinished(jobId);
+        assertThrows(RejectedRowsNotAvailableException.class, () -> importJobService.getRejectedRows(jobId));
+    }
+
+    @Test
+    void submit_whenFileIsNotCsv_shouldThrowCsvImportFailedException() {
+        MockMultipartFile file = new MockMultipartFile("file", "BankStatements.txt", "text/plain", new byte[0]);
+        assertThrows(CsvImportFailedException.class, () -> importJobService.submit(file, Compression.NONE, false));
+    }
+
+    @Test
+    void getJob_whenJobIsUnknown_shouldThrowImportJobNotFoundException() {
+        assertThrows(ImportJobNotFoundException.class, () -> importJobService.getJob("unknown"));
+    }
+
+    private ImportJobDto awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ImportJobDto importJob = importJobService.getJob(jobId);
+        while (importJob.status() == ImportJobStatus.QUEUED || importJob.status() == ImportJobStatus.RUNNING) {
+            assertTrue(System.nanoTime() < deadline, "Import job did not finish in time");
+            Thread.sleep(10);
+            importJob = importJobService.getJob(jobId);
+        }
+        return importJob;
+    }
+
+    private void assertSpoolDirectoryIsEmpty() throws IOException {
+        try (var spooledFiles = Files.list(spoolDirectory)) {
+            assertEquals(0, spooledFiles.count());
+        }
+    }
+
+    private static MockMultipartFile csvFile() {
+        return new MockMultipartFile("file", "BankStatements.csv", "text/csv", CSV.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BankStatement bankStatement() {
+        return new BankStatement(null, "account1", LocalDateTime.of(2022, 9, 19, 20, 55, 41), "account2", "comment",
+                new BigDecimal("100"), "EUR");
+    }
+}
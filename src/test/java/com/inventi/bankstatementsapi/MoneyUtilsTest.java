@@ -0,0 +1,49 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.utils.MoneyUtils;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MoneyUtilsTest {
+
+    @Test
+    void isValidAmount_whenAmountFitsStoredPrecision_shouldReturnTrue() {
+        assertTrue(MoneyUtils.isValidAmount(new BigDecimal("-12.3400000")));
+        assertTrue(MoneyUtils.isValidAmount(new BigDecimal("99999999999999.9999")));
+        assertTrue(MoneyUtils.isValidAmount(new BigDecimal("1E+3")));
+    }
+
+    @Test
+    void isValidAmount_whenAmountNeedsRounding_shouldReturnFalse() {
+        assertFalse(MoneyUtils.isValidAmount(null));
+        assertFalse(MoneyUtils.isValidAmount(new BigDecimal("0.00001")));
+        assertFalse(MoneyUtils.isValidAmount(new BigDecimal("100000000000000")));
+    }
+
+    @Test
+    void toUnits_whenAmountIsValid_shouldRoundTripExactly() {
+        BigDecimal amount = new BigDecimal("-99999999999999.9999");
+        long units = MoneyUtils.toUnits(amount);
+        assertEquals(-999999999999999999L, units);
+        assertEquals(amount, MoneyUtils.fromUnits(units));
+    }
+
+    @Test
+    void toCurrencyScale_whenCurrencyIsKnown_shouldUseItsMinorUnits() {
+        assertEquals(new BigDecimal("200.00"), MoneyUtils.toCurrencyScale(new BigDecimal("200.0000"), "EUR"));
+        assertEquals(new BigDecimal("200"), MoneyUtils.toCurrencyScale(new BigDecimal("200.0000"), "JPY"));
+        assertEquals(new BigDecimal("0.125"), MoneyUtils.toCurrencyScale(new BigDecimal("0.1250"), "BHD"));
+    }
+
+    @Test
+    void toCurrencyScale_whenAmountHasMoreDigitsOrCurrencyIsUnknown_shouldKeepExactValue() {
+        assertEquals(new BigDecimal("0.1234"), MoneyUtils.toCurrencyScale(new BigDecimal("0.1234"), "EUR"));
+        assertEquals(new BigDecimal("10000000000.00"), MoneyUtils.toCurrencyScale(new BigDecimal("1E+10"), "unknown"));
+        assertEquals(new BigDecimal("5.10"), MoneyUtils.toCurrencyScale(new BigDecimal("5.1"), null));
+    }
+}
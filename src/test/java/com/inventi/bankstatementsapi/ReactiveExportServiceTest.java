@@ -0,0 +1,118 @@
+package com.inventi.bankstatementsapi;
+
+import com.inventi.bankstatementsapi.config.ExportProperties;
+import com.inventi.bankstatementsapi.csv.BankStatementCsvWriter;
+import com.inventi.bankstatementsapi.entity.BankStatement;
+import com.inventi.bankstatementsapi.exception.ExportRejectedException;
+import com.inventi.bankstatementsapi.repository.BankStatementReactiveRepository;
+import com.inventi.bankstatementsapi.service.BankStatementMetrics;
+import com.inventi.bankstatementsapi.service.ReactiveExportService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static com.inventi.bankstatementsapi.service.BankStatementMetrics.EXPORT_ROWS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReactiveExportServiceTest {
+
+    private static final LocalDate DATE_FROM = LocalDate.of(2022, 1, 1);
+    private static final LocalDate DATE_TO = LocalDate.of(2022, 12, 31);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExportProperties exportProperties = new ExportProperties();
+
+    private final BankStatementReactiveRepository bankStatementReactiveRepository = mock(BankStatementReactiveRepository.class);
+
+    private ReactiveExportService reactiveExportService;
+
+    @BeforeEach
+    void setup() {
+        exportProperties.setReactiveFetchSize(2);
+        reactiveExportService = new ReactiveExportService(bankStatementReactiveRepository, exportProperties,
+                new BankStatementMetrics(meterRegistry));
+    }
+
+    @Test
+    void exportCsv_whenRowsSpanSeveralBuffers_shouldMatchCsvWriterOutput() throws IOException {
+        List<BankStatement> bankStatements = bankStatements(5);
+        when(bankStatementReactiveRepository.streamAllByOperationDateIsBetween(DATE_FROM.atStartOfDay(), DATE_TO.atStartOfDay()))
+                .thenReturn(Flux.fromIterable(bankStatements));
+
+        List<DataBuffer> dataBuffers = reactiveExportService.exportCsv(DATE_FROM, DATE_TO, DefaultDataBufferFactory.sharedInstance)
+                .collectList()
+                .block();
+
+        assertEquals(3, dataBuffers.size());
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        BankStatementCsvWriter bankStatementCsvWriter = new BankStatementCsvWriter(expected);
+        for (BankStatement bankStatement : bankStatements) {
+            bankStatementCsvWriter.write(bankStatement);
+        }
+        bankStatementCsvWriter.flush();
+        assertEquals(expected.toString(StandardCharsets.UTF_8), toString(dataBuffers));
+        assertEquals(5, meterRegistry.get(EXPORT_ROWS).counter().count());
+    }
+
+    @Test
+    void exportCsv_whenClientRequestsOneBuffer_shouldRequestOneFetchOfRows() {
+        AtomicLong requestedRows = new AtomicLong();
+        when(bankStatementReactiveRepository.streamAllByOperationDateIsBetween(any(), any()))
+                .thenReturn(Flux.fromIterable(bankStatements(100)).doOnRequest(requestedRows::addAndGet));
+
+        StepVerifier.create(reactiveExportService.exportCsv(null, null, DefaultDataBufferFactory.sharedInstance), 1)
+                .expectNextCount(1)
+                .then(() -> assertEquals(2, requestedRows.get()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void exportCsv_whenNoConnectionFreesUp_shouldSignalExportRejectedException() {
+        when(bankStatementReactiveRepository.streamAllByOperationDateIsBetween(any(), any()))
+                .thenReturn(Flux.error(new DataAccessResourceFailureException("Failed to obtain R2DBC Connection",
+                        new R2dbcTimeoutException("Connection acquisition timed out"))));
+
+        StepVerifier.create(reactiveExportService.exportCsv(null, null, DefaultDataBufferFactory.sharedInstance))
+                .expectError(ExportRejectedException.class)
+                .verify();
+    }
+
+    private List<BankStatement> bankStatements(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> new BankStatement(id, "account" + id, LocalDateTime.of(2022, 9, 19, 20, 55, 41),
+                        "account0", "comment ąč " + id, new BigDecimal("100.5"), "EUR"))
+                .toList();
+    }
+
+    private String toString(List<DataBuffer> dataBuffers) {
+        StringBuilder csv = new StringBuilder();
+        for (DataBuffer dataBuffer : dataBuffers) {
+            csv.append(dataBuffer.toString(StandardCharsets.UTF_8));
+            DataBufferUtils.release(dataBuffer);
+        }
+        return csv.toString();
+    }
+}
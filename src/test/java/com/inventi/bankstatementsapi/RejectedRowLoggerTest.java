@@ -0,0 +1,113 @@
+package com.inventi.bankstatementsapi;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.inventi.bankstatementsapi.config.ImportProperties;
+import com.inventi.bankstatementsapi.csv.RejectReason;
+import com.inventi.bankstatementsapi.csv.RejectedRows;
+import com.inventi.bankstatementsapi.service.RejectedRowLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RejectedRowLoggerTest {
+
+    private static final String SKIPPING_MESSAGE = "Skipping row {} of file {}: {}";
+
+    private static final String SKIPPED_MESSAGE = "Skipped logging of {} further rejected rows";
+
+    private final ImportProperties importProperties = new ImportProperties();
+
+    private final Clock clock = mock(Clock.class);
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(RejectedRowLogger.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private RejectedRowLogger rejectedRowLogger;
+
+    @BeforeEach
+    void setup() {
+        importProperties.setRejectedRowLogRate(2);
+        when(clock.millis()).thenReturn(1_000L);
+        rejectedRowLogger = new RejectedRowLogger(importProperties, clock);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void log_whenRateIsExceeded_shouldReportSuppressedRowsInNextSecond() {
+        logRows(5);
+        when(clock.millis()).thenReturn(2_500L);
+        logRows(1);
+        assertEquals(List.of(SKIPPING_MESSAGE, SKIPPING_MESSAGE, SKIPPED_MESSAGE, SKIPPING_MESSAGE), messages());
+        assertEquals(3L, appender.list.get(2).getArgumentArray()[0]);
+    }
+
+    @Test
+    void flush_whenRowsWereSuppressed_shouldReportThemOnce() {
+        logRows(3);
+        rejectedRowLogger.flush();
+        rejectedRowLogger.flush();
+        assertEquals(List.of(SKIPPING_MESSAGE, SKIPPING_MESSAGE, SKIPPED_MESSAGE), messages());
+        assertEquals(1L, appender.list.get(2).getArgumentArray()[0]);
+    }
+
+    @Test
+    void log_whenThreadsLogInSameSecond_shouldLogOnlyRateAndCountTheRest() throws InterruptedException {
+        importProperties.setRejectedRowLogRate(10);
+        rejectedRowLogger = new RejectedRowLogger(importProperties, clock);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                logRows(250);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        rejectedRowLogger.flush();
+        assertEquals(10, messages().stream().filter(SKIPPING_MESSAGE::equals).count());
+        assertEquals(990L, appender.list.get(appender.list.size() - 1).getArgumentArray()[0]);
+    }
+
+    private void logRows(int count) {
+        RejectedRows rejectedRows = new RejectedRows();
+        for (int i = 0; i < count; i++) {
+            rejectedRows.add(i + 2, RejectReason.MISSING_VALUE);
+        }
+        rejectedRowLogger.log("file.csv", rejectedRows);
+    }
+
+    private List<String> messages() {
+        return appender.list.stream()
+                .map(ILoggingEvent::getMessage)
+                .toList();
+    }
+}